@@ -0,0 +1,38 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.Boosters;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+
+// Seeded board fixtures shared by the benchmarks; the same seed always gives the same board
+final class Boards {
+
+    static final int COLORS = 6;
+    static final long SEED = 42;
+
+    private Boards() {
+    }
+
+    // Uniformly random colors, so it usually contains matches
+    static Board random(int size, long seed) {
+        return random(size, size, seed);
+    }
+
+    static Board random(int width, int height, long seed) {
+        Board board = new Board(width, height, COLORS);
+        GameRandom random = new GameRandom(seed);
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            board.set(cell, (byte) (1 + random.nextInt(COLORS)), Boosters.NONE);
+        }
+        return board;
+    }
+
+    // Random board with every cascade resolved, like the board a player sees between moves
+    static Board settled(int size, long seed) {
+        Board board = random(size, seed);
+        new GameEngine(board, new GameRandom(seed)).settle();
+        board.getDirtyRegion().reset();
+        return board;
+    }
+}
@@ -0,0 +1,112 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.BoosterChain;
+import com.springliviu.gemgrid.engine.BoosterEffects;
+import com.springliviu.gemgrid.engine.Boosters;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.GameRandom;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Every booster path on a settled board with boosters placed in the middle. Each call restores the
+// board from its template first (see GravityBenchmark.copyOnly for that cost). chainReaction fires a
+// row booster on a board where one cell in DENSITY holds a booster, so most of them detonate in turn
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoosterBenchmark {
+
+    private static final int DENSITY = 8;
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    Board template;
+    Board dense;
+    Board board;
+    CellMask cleared;
+    BoosterChain chain;
+    GameRandom random;
+    int center;
+    int right;
+
+    @Setup
+    public void setUp() {
+        template = Boards.settled(size, Boards.SEED);
+        board = new Board(size, size, Boards.COLORS);
+        cleared = new CellMask(template.getSize());
+        chain = new BoosterChain(size, size);
+        random = new GameRandom(Boards.SEED);
+        center = template.index(size / 2, size / 2);
+        right = center + 1;
+
+        dense = new Board(size, size, Boards.COLORS);
+        dense.copyFrom(template);
+        GameRandom placement = new GameRandom(Boards.SEED);
+        for (int cell = 0; cell < dense.getSize(); cell++) {
+            if (placement.nextInt(DENSITY) == 0) {
+                dense.set(cell, Board.MARKER, (byte) (Boosters.ROW + placement.nextInt(Boosters.COLOR_BOMB)));
+            }
+        }
+        dense.set(center, Board.MARKER, Boosters.ROW);
+    }
+
+    private void place(byte first, byte second) {
+        board.copyFrom(template);
+        if (first != Boosters.NONE) board.set(center, Board.MARKER, first);
+        if (second != Boosters.NONE) board.set(right, Board.MARKER, second);
+    }
+
+    @Benchmark
+    public int rowBooster() {
+        place(Boosters.ROW, Boosters.NONE);
+        return BoosterEffects.activateBooster(board, center, chain, cleared);
+    }
+
+    @Benchmark
+    public int columnBooster() {
+        place(Boosters.COLUMN, Boosters.NONE);
+        return BoosterEffects.activateBooster(board, center, chain, cleared);
+    }
+
+    @Benchmark
+    public int colorBomb() {
+        place(Boosters.COLOR_BOMB, Boosters.NONE);
+        return BoosterEffects.activateBooster(board, center, chain, cleared);
+    }
+
+    @Benchmark
+    public int chainReaction() {
+        board.copyFrom(dense);
+        return BoosterEffects.activateBooster(board, center, chain, cleared);
+    }
+
+    @Benchmark
+    public int lineCombo() {
+        place(Boosters.ROW, Boosters.COLUMN);
+        return BoosterEffects.triggerLineBoosterCombo(board, right, center, chain, cleared);
+    }
+
+    @Benchmark
+    public int colorBombWithTile() {
+        place(Boosters.COLOR_BOMB, Boosters.NONE);
+        return BoosterEffects.triggerColorBombCombo(board, center, right, random, chain, cleared);
+    }
+
+    @Benchmark
+    public int colorBombWithLine() {
+        place(Boosters.COLOR_BOMB, Boosters.ROW);
+        return BoosterEffects.triggerColorBombCombo(board, center, right, random, chain, cleared);
+    }
+
+    @Benchmark
+    public int colorBombPair() {
+        place(Boosters.COLOR_BOMB, Boosters.COLOR_BOMB);
+        return BoosterEffects.triggerColorBombCombo(board, center, right, random, chain, cleared);
+    }
+}
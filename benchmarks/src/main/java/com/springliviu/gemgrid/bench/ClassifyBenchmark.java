@@ -0,0 +1,42 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.BoosterClassifier;
+import com.springliviu.gemgrid.engine.BoosterSpawns;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.MatchFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cluster labeling and booster placement over the matches of a random board
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassifyBenchmark {
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    CellMask matched;
+    BoosterClassifier classifier;
+    BoosterSpawns spawns;
+
+    @Setup
+    public void setUp() {
+        Board board = Boards.random(size, Boards.SEED);
+        matched = new CellMask(board.getSize());
+        MatchFinder.findMatches(board, matched);
+        classifier = new BoosterClassifier(board);
+        spawns = new BoosterSpawns(board.getSize());
+    }
+
+    @Benchmark
+    public int classify() {
+        classifier.classify(matched, spawns);
+        return spawns.size();
+    }
+}
@@ -0,0 +1,63 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.DropList;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.Gravity;
+import com.springliviu.gemgrid.engine.MatchFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One gravity pass over a board whose matched cells were just cleared. Each call first restores the
+// board from a template; copyOnly measures that restore so it can be subtracted. parallel lets the
+// pass compact its columns in parallel, which only boards of 256x256 and up are large enough for
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GravityBenchmark {
+
+    @Param({"8", "16", "64", "512"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    Board template;
+    Board board;
+    DropList drops;
+    GameRandom random;
+    Gravity gravity;
+
+    @Setup
+    public void setUp() {
+        template = Boards.random(size, Boards.SEED);
+        CellMask matched = new CellMask(template.getSize());
+        MatchFinder.findMatches(template, matched);
+        for (int cell = matched.nextCell(0); cell >= 0; cell = matched.nextCell(cell + 1)) {
+            template.clear(cell);
+        }
+        board = new Board(size, size, Boards.COLORS);
+        drops = new DropList(board.getSize());
+        random = new GameRandom(Boards.SEED);
+        gravity = new Gravity(size, size);
+        gravity.setParallel(parallel);
+    }
+
+    @Benchmark
+    public int copyOnly() {
+        board.copyFrom(template);
+        return board.getColor(0);
+    }
+
+    @Benchmark
+    public int applyGravity() {
+        board.copyFrom(template);
+        gravity.apply(board, random, drops);
+        return drops.size();
+    }
+}
@@ -0,0 +1,50 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.BitboardMatcher;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.MatchFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Full-board match detection: cell-by-cell scan versus per-color bitboards, plus the single-cell check
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchBenchmark {
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    Board board;
+    CellMask matched;
+    BitboardMatcher bitboard;
+    int centerRow;
+
+    @Setup
+    public void setUp() {
+        board = Boards.random(size, Boards.SEED);
+        matched = new CellMask(board.getSize());
+        bitboard = new BitboardMatcher(size, size);
+        centerRow = size / 2;
+    }
+
+    @Benchmark
+    public boolean scanFindMatches() {
+        return MatchFinder.findMatches(board, matched);
+    }
+
+    @Benchmark
+    public boolean bitboardFindMatches() {
+        return bitboard.findMatches(board, matched);
+    }
+
+    @Benchmark
+    public boolean isMatch() {
+        return MatchFinder.isMatch(board, centerRow, centerRow);
+    }
+}
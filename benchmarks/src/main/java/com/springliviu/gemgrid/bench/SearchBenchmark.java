@@ -0,0 +1,99 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.headless.GreedyPolicy;
+import com.springliviu.gemgrid.headless.Policy;
+import com.springliviu.gemgrid.headless.SearchPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One move of a player in an ongoing game, restarted from the next seed every MOVES moves. player is
+// "greedy" or the search time budget in milliseconds; the search uses every core. Besides moves per
+// second, the counters report simulated turns per second (nodes) and the mean points per move of the
+// iteration, so the search can be compared with the greedy baseline, which sees the real refills.
+// Iterations are longer than usual, since a 50 ms search makes only 20 moves a second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private static final int MOVES = 30;
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    @Param({"greedy", "5", "50"})
+    String player;
+
+    GameEngine engine;
+    Policy policy;
+    SearchPolicy search;
+    long gameSeed;
+    int moves;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Points {
+        public double pointsPerMove;
+        long points;
+        long moves;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pointsPerMove = 0;
+            points = 0;
+            moves = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(new Board(size, size, Boards.COLORS), new GameRandom(Boards.SEED));
+        if (player.equals("greedy")) {
+            policy = new GreedyPolicy();
+        } else {
+            search = new SearchPolicy(TimeUnit.MILLISECONDS.toNanos(Long.parseLong(player)), 0,
+                    Policy.SEARCH_DEPTH, Runtime.getRuntime().availableProcessors());
+            policy = search;
+        }
+        gameSeed = Boards.SEED;
+        newGame();
+    }
+
+    @Benchmark
+    public int move(Nodes nodes, Points points) {
+        if (moves == MOVES) newGame();
+        int before = engine.getScore();
+        // Greedy plays out each candidate swap once
+        int candidates = search == null ? engine.findMoves().getMoveCount() : 0;
+        if (!policy.playMove(engine)) {
+            newGame();
+            return 0;
+        }
+        moves++;
+        nodes.nodes += search != null ? search.getNodes() : candidates;
+        points.points += engine.getScore() - before;
+        points.moves++;
+        points.pointsPerMove = (double) points.points / points.moves;
+        return engine.getScore();
+    }
+
+    private void newGame() {
+        gameSeed++;
+        engine.newGame(gameSeed);
+        policy.reset(gameSeed);
+        moves = 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.Shuffler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Dead-board reshuffle. Sample mode reports latency percentiles, so p99.99 and p100 show the
+// worst case; a shuffle never retries more than a fixed number of linear passes. The shuffled board
+// is a valid input for the next call, so nothing is restored in between
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShuffleBenchmark {
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    Board board;
+    Shuffler shuffler;
+    GameRandom random;
+
+    @Setup
+    public void setUp() {
+        board = Boards.settled(size, Boards.SEED);
+        shuffler = new Shuffler(board.getSize());
+        random = new GameRandom(Boards.SEED);
+    }
+
+    @Benchmark
+    public boolean shuffle() {
+        return shuffler.shuffle(board, random);
+    }
+}
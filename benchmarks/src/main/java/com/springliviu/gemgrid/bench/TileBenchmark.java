@@ -0,0 +1,79 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.Tile;
+import com.springliviu.gemgrid.engine.Board;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Tile appearance updates as a cascade drives them: every tile mirrors a board that differs in most
+// cells, then the same board again, which must be nearly free. Run with -prof gc to see the
+// allocations per pass. Needs the FX toolkit, so a display (or Xvfb), like TileUtilsBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileBenchmark {
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    Tile[][] tiles;
+    Board first;
+    Board second;
+    boolean flip;
+
+    @Setup
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException alreadyStarted) {
+            // Toolkit is up from an earlier trial in this fork
+        }
+
+        first = Boards.settled(size, Boards.SEED);
+        second = Boards.settled(size, Boards.SEED + 1);
+        tiles = new Tile[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                tiles[row][col] = new Tile(row, col, 50, null);
+                tiles[row][col].mirror(first);
+            }
+        }
+    }
+
+    @Benchmark
+    public Tile mirrorChanged() {
+        flip = !flip;
+        return mirrorAll(flip ? second : first);
+    }
+
+    @Benchmark
+    public Tile mirrorUnchanged() {
+        return mirrorAll(first);
+    }
+
+    // Selection on and off for every tile, as the old code rebuilt a DropShadow each time
+    @Benchmark
+    public Tile toggleSelection() {
+        for (Tile[] row : tiles) {
+            for (Tile tile : row) {
+                tile.setSelected(true);
+                tile.setSelected(false);
+            }
+        }
+        return tiles[0][0];
+    }
+
+    private Tile mirrorAll(Board board) {
+        for (Tile[] row : tiles) {
+            for (Tile tile : row) {
+                tile.mirror(board);
+            }
+        }
+        return tiles[0][0];
+    }
+}
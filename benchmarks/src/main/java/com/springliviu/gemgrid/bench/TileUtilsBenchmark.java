@@ -0,0 +1,68 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.Palette;
+import com.springliviu.gemgrid.Tile;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.Boosters;
+import com.springliviu.gemgrid.services.TileUtils;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// The Tile-based reference implementation on the same boards as MatchBenchmark and ClassifyBenchmark.
+// Tiles are JavaFX nodes, so this needs the FX toolkit and therefore a display (or Xvfb)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileUtilsBenchmark {
+
+    @Param({"8", "16", "64"})
+    int size;
+
+    Tile[][] tiles;
+    Set<Tile> matched;
+    int centerRow;
+
+    @Setup
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException alreadyStarted) {
+            // Toolkit is up from an earlier trial in this fork
+        }
+
+        Board board = Boards.random(size, Boards.SEED);
+        tiles = new Tile[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int cell = board.index(row, col);
+                Tile tile = new Tile(row, col, 50, Palette.toColor(board.getColor(cell)));
+                tile.setBooster(Boosters.toType(board.getBooster(cell)));
+                tiles[row][col] = tile;
+            }
+        }
+        matched = TileUtils.findMatchedTiles(tiles);
+        centerRow = size / 2;
+    }
+
+    @Benchmark
+    public Set<Tile> findMatchedTiles() {
+        return TileUtils.findMatchedTiles(tiles);
+    }
+
+    @Benchmark
+    public boolean isMatch() {
+        return TileUtils.isMatch(tiles, centerRow, centerRow);
+    }
+
+    @Benchmark
+    public Map<Tile, ?> classifyMatchesAndBoosters() {
+        return TileUtils.classifyMatchesAndBoosters(tiles, matched);
+    }
+}
@@ -0,0 +1,58 @@
+package com.springliviu.gemgrid.bench;
+
+import com.springliviu.gemgrid.engine.BitboardMatcher;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.MatchDetector;
+import com.springliviu.gemgrid.engine.MatchFinder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Full-board match detection on boards of HEIGHT rows and 8 to 1024 columns: cell-by-cell scan,
+// per-color bitboards and the Vector API kernel. The fork adds the incubator module; setup fails
+// rather than measure the bitboard fallback under the vector name
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class VectorMatchBenchmark {
+
+    private static final int HEIGHT = 64;
+
+    @Param({"8", "16", "32", "64", "128", "256", "512", "1024"})
+    int width;
+
+    Board board;
+    CellMask matched;
+    BitboardMatcher bitboard;
+    MatchDetector vector;
+
+    @Setup
+    public void setUp() {
+        if (!MatchDetector.isVectorAvailable()) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+        }
+        board = Boards.random(width, HEIGHT, Boards.SEED);
+        matched = new CellMask(board.getSize());
+        bitboard = new BitboardMatcher(width, HEIGHT);
+        vector = MatchDetector.create("vector", board);
+    }
+
+    @Benchmark
+    public boolean scanFindMatches() {
+        return MatchFinder.findMatches(board, matched);
+    }
+
+    @Benchmark
+    public boolean bitboardFindMatches() {
+        return bitboard.findMatches(board, matched);
+    }
+
+    @Benchmark
+    public boolean vectorFindMatches() {
+        return vector.findMatches(board, matched);
+    }
+}
@@ -0,0 +1,38 @@
+package com.springliviu.gemgrid;
+
+// How turns are animated; the engine resolves every turn at once in all modes
+public enum AnimationSpeed {
+    NORMAL(1.0),   // Full-length transitions
+    FAST(0.25),    // Same steps, a quarter of the time
+    TURBO(0.0);    // No animation: the board jumps to the end of the turn
+
+    private final double timeScale;
+
+    AnimationSpeed(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    // Factor applied to every animation duration
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    public AnimationSpeed next() {
+        AnimationSpeed[] speeds = values();
+        return speeds[(ordinal() + 1) % speeds.length];
+    }
+
+    // -Dgemgrid.speed=normal|fast|turbo
+    public static AnimationSpeed parse(String name) {
+        switch (name) {
+            case "normal":
+                return NORMAL;
+            case "fast":
+                return FAST;
+            case "turbo":
+                return TURBO;
+            default:
+                throw new IllegalArgumentException("Unknown animation speed: " + name);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.springliviu.gemgrid;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.TurnScript;
+import javafx.scene.Node;
+
+import java.util.function.IntConsumer;
+
+// What Main needs from a board view. Views never run game logic: they mirror the engine Board when a
+// game starts and then play back the TurnScript of each turn. Cells are addressed by their Board index
+public interface BoardView {
+
+    Node getNode();
+
+    void setOnCellClicked(IntConsumer handler);
+
+    // Mirrors every cell of the board
+    void showBoard();
+
+    void setSelected(int cell, boolean selected);
+
+    void setHinted(int cell, boolean hinted);
+
+    // Scrolls a large board so the cell is in view
+    void reveal(int cell);
+
+    // Shows a color and booster code in the cell right away
+    void show(int cell, byte color, byte booster);
+
+    // Fades out the cells of a FADE step and shows them empty; onFinished runs once, after the last one
+    void fadeOut(TurnScript script, int step, Runnable onFinished);
+
+    // Shows the tiles of a DROP step and animates them falling into place
+    void animateDrops(TurnScript script, int step, Runnable after);
+
+    // Shows the tiles of a SHUFFLE step and flies each one from its old cell to its new one
+    void animateShuffle(TurnScript script, int step, Runnable after);
+
+    // Scales the length of every animation started from now on; 1 is the normal speed
+    void setTimeScale(double timeScale);
+
+    // -Dgemgrid.renderer=nodes (one Tile per cell, the default) or canvas (one Canvas for the board)
+    static BoardView create(String name, Board board, int tileSize) {
+        switch (name) {
+            case "nodes":
+                return new TileBoardView(board, tileSize);
+            case "canvas":
+                return new CanvasBoardView(board, tileSize);
+            default:
+                throw new IllegalArgumentException("Unknown renderer: " + name);
+        }
+    }
+}
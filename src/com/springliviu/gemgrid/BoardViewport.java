@@ -0,0 +1,156 @@
+package com.springliviu.gemgrid;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+
+// Scrollable, zoomable window onto the board that both views draw into. It tracks the scroll position
+// in pixels and the tile size of the zoom level, and tells the view whenever the visible cells or their
+// positions change. Views only create what is inside the window, so a 512x512 board costs as much as
+// the cells that fit on screen. The mouse wheel scrolls; with Ctrl held it zooms around the pointer
+class BoardViewport extends Pane {
+
+    static final int GAP = 5;
+    static final int PADDING = 10;
+
+    private static final int MIN_TILE_SIZE = 16;
+    private static final int MAX_TILE_SIZE = 100;
+    private static final double MAX_PREF_SIZE = 800;
+    private static final double ZOOM_STEP = 1.15;
+
+    private final int boardWidth;
+    private final int boardHeight;
+    private final Runnable onChange;
+    private final Rectangle clip = new Rectangle();
+    private int tileSize;
+    private double scrollX;
+    private double scrollY;
+    private double viewWidth;
+    private double viewHeight;
+
+    BoardViewport(int boardWidth, int boardHeight, int tileSize, Runnable onChange) {
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        this.tileSize = tileSize;
+        this.onChange = onChange;
+        setClip(clip);
+
+        setOnScroll(e -> {
+            if (e.isControlDown()) {
+                zoom(e.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, e.getX(), e.getY());
+            } else {
+                scrollTo(scrollX - e.getDeltaX(), scrollY - e.getDeltaY());
+            }
+            e.consume();
+        });
+    }
+
+    int getTileSize() { return tileSize; }
+    int getSlot() { return tileSize + GAP; }
+
+    // Visible cells are rows [getFirstRow(), getLastRow()) and columns [getFirstCol(), getLastCol())
+    int getFirstRow() { return first(scrollY, boardHeight); }
+    int getFirstCol() { return first(scrollX, boardWidth); }
+    int getLastRow() { return last(scrollY, viewHeight, boardHeight); }
+    int getLastCol() { return last(scrollX, viewWidth, boardWidth); }
+
+    // Most rows and columns that can be visible at once at this size and zoom
+    int getMaxRows() { return Math.min(boardHeight, (int) Math.ceil(viewHeight / getSlot()) + 1); }
+    int getMaxCols() { return Math.min(boardWidth, (int) Math.ceil(viewWidth / getSlot()) + 1); }
+
+    double cellX(int col) { return PADDING + col * getSlot() - scrollX; }
+    double cellY(int row) { return PADDING + row * getSlot() - scrollY; }
+
+    // Board row and column under a point of this region, or -1 outside the board
+    int rowAt(double y) { return indexAt(y + scrollY, boardHeight); }
+    int colAt(double x) { return indexAt(x + scrollX, boardWidth); }
+
+    // Scrolls just far enough to bring the cell fully into view
+    void reveal(int row, int col) {
+        double x = scrollX;
+        double y = scrollY;
+        double left = PADDING + col * getSlot();
+        double top = PADDING + row * getSlot();
+        if (left < x) x = left - PADDING;
+        if (left + tileSize > x + viewWidth) x = left + tileSize + PADDING - viewWidth;
+        if (top < y) y = top - PADDING;
+        if (top + tileSize > y + viewHeight) y = top + tileSize + PADDING - viewHeight;
+        scrollTo(x, y);
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return Math.min(contentSize(boardWidth), MAX_PREF_SIZE);
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return Math.min(contentSize(boardHeight), MAX_PREF_SIZE);
+    }
+
+    @Override
+    protected double computeMaxWidth(double height) {
+        return contentSize(boardWidth);
+    }
+
+    @Override
+    protected double computeMaxHeight(double width) {
+        return contentSize(boardHeight);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (getWidth() != viewWidth || getHeight() != viewHeight) {
+            viewWidth = getWidth();
+            viewHeight = getHeight();
+            clip.setWidth(viewWidth);
+            clip.setHeight(viewHeight);
+            setScroll(scrollX, scrollY);
+            onChange.run();
+        }
+    }
+
+    private void zoom(double factor, double pivotX, double pivotY) {
+        int size = (int) Math.round(Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, tileSize * factor)));
+        if (size == tileSize) return;
+        double scale = (double) (size + GAP) / getSlot();
+        tileSize = size;
+        // Keeps the point under the pointer where it was
+        double x = (scrollX + pivotX - PADDING) * scale + PADDING - pivotX;
+        double y = (scrollY + pivotY - PADDING) * scale + PADDING - pivotY;
+        setScroll(x, y);
+        onChange.run();
+        requestParentLayout();
+    }
+
+    private void scrollTo(double x, double y) {
+        if (setScroll(x, y)) onChange.run();
+    }
+
+    // Clamps the scroll position to the board; true if it moved
+    private boolean setScroll(double x, double y) {
+        x = Math.max(0, Math.min(x, contentSize(boardWidth) - viewWidth));
+        y = Math.max(0, Math.min(y, contentSize(boardHeight) - viewHeight));
+        if (x == scrollX && y == scrollY) return false;
+        scrollX = x;
+        scrollY = y;
+        return true;
+    }
+
+    private double contentSize(int cells) {
+        return 2 * PADDING + cells * getSlot() - GAP;
+    }
+
+    private int first(double scroll, int cells) {
+        return Math.max(0, Math.min(cells, (int) Math.floor((scroll - PADDING + GAP) / getSlot())));
+    }
+
+    private int last(double scroll, double view, int cells) {
+        return Math.max(0, Math.min(cells, (int) Math.ceil((scroll + view - PADDING) / getSlot())));
+    }
+
+    private int indexAt(double position, int cells) {
+        int index = (int) Math.floor((position - PADDING) / getSlot());
+        if (index < 0 || index >= cells || position - PADDING - index * getSlot() >= tileSize) return -1;
+        return index;
+    }
+}
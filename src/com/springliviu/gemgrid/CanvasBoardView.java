@@ -0,0 +1,405 @@
+package com.springliviu.gemgrid;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.Boosters;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.DropList;
+import com.springliviu.gemgrid.engine.TurnScript;
+import com.springliviu.gemgrid.services.TweenScheduler;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Draws the board on one Canvas the size of the viewport instead of one node per cell. Every color
+// and booster is rasterized once into a sprite, which is scaled to the zoom level; a TweenScheduler
+// advances the animations, and each pulse redraws only dirty cells, or whole columns while tiles fall
+// through them. Only visible cells are drawn or animated, and tween values live in per-slot arrays
+// sized to the viewport
+public class CanvasBoardView implements BoardView, TweenScheduler.Target {
+
+    private static final int GAP = BoardViewport.GAP;
+
+    private final Board board;
+    private final int baseTileSize;
+    private final BoardViewport viewport;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+
+    private final Image[] colorSprites = new Image[Board.MARKER + 1];
+    private final Image[] boosterSprites = new Image[Boosters.COLOR_BOMB + 1];
+    private final Image selectedRing;
+    private final Image hintRing;
+
+    // What each cell currently shows, which lags the board while a turn plays back
+    private final byte[] shownColors;
+    private final byte[] shownBoosters;
+    private final CellMask selected;
+    private final CellMask hinted;
+    private final CellMask colorBombs;   // Cells showing a color bomb, kept by show()
+
+    // Tween values of the visible cells, indexed by slot
+    private double[] alpha = new double[0];
+    private double[] offsetX = new double[0];
+    private double[] offsetY = new double[0];
+    private int slotCols = 1;
+    private int firstRow;
+    private int firstCol;
+    private int lastRow;
+    private int lastCol;
+
+    private final TweenScheduler scheduler;
+    private final CellMask fading;
+    private final Runnable clearFaded = this::clearFaded;
+    private Runnable afterFade;
+
+    private final CellMask dirtyCells;
+    private final boolean[] dirtyColumns;
+    private boolean fullRedraw = true;
+    private boolean pulsing;
+    private long frameTime;
+    private IntConsumer clickHandler = cell -> { };
+
+    public CanvasBoardView(Board board, int tileSize) {
+        this.board = board;
+        this.baseTileSize = tileSize;
+
+        int size = board.getSize();
+        shownColors = new byte[size];
+        shownBoosters = new byte[size];
+        selected = new CellMask(size);
+        hinted = new CellMask(size);
+        colorBombs = new CellMask(size);
+        fading = new CellMask(size);
+        dirtyCells = new CellMask(size);
+        dirtyColumns = new boolean[board.getWidth()];
+
+        for (int code = 1; code <= board.getColorCount(); code++) {
+            colorSprites[code] = rasterize(Palette.toColor((byte) code), Color.DARKGRAY, "", Color.WHITE);
+        }
+        colorSprites[Board.MARKER] = rasterize(Color.BLACK, Color.DARKGRAY, "", Color.WHITE);
+        boosterSprites[Boosters.ROW] = rasterize(Color.BLACK, Color.DARKGRAY, "⇔", Color.WHITE);
+        boosterSprites[Boosters.COLUMN] = rasterize(Color.BLACK, Color.DARKGRAY, "⇕", Color.WHITE);
+        boosterSprites[Boosters.COLOR_BOMB] = rasterize(Color.WHITE, Color.GRAY, "✴", Color.BLACK);
+        selectedRing = ring(Color.GOLD);
+        hintRing = ring(Color.WHITE);
+
+        scheduler = new TweenScheduler(this);
+        canvas = new Canvas();
+        canvas.setManaged(false);
+        gc = canvas.getGraphicsContext2D();
+        viewport = new BoardViewport(board.getWidth(), board.getHeight(), tileSize, this::viewportChanged);
+        viewport.getChildren().add(canvas);
+        viewport.setOnMouseClicked(e -> {
+            int row = viewport.rowAt(e.getY());
+            int col = viewport.colAt(e.getX());
+            if (row >= 0 && col >= 0) {
+                clickHandler.accept(board.index(row, col));
+            }
+        });
+    }
+
+    @Override
+    public Node getNode() {
+        return viewport;
+    }
+
+    @Override
+    public void setOnCellClicked(IntConsumer handler) {
+        this.clickHandler = handler;
+    }
+
+    @Override
+    public void showBoard() {
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            show(cell, board.getColor(cell), board.getBooster(cell));
+        }
+    }
+
+    @Override
+    public void setSelected(int cell, boolean on) {
+        if (on) selected.add(cell); else selected.remove(cell);
+        dirtyCells.add(cell);
+        scheduler.requestFrame();
+    }
+
+    @Override
+    public void setHinted(int cell, boolean on) {
+        if (on) hinted.add(cell); else hinted.remove(cell);
+        dirtyCells.add(cell);
+        scheduler.requestFrame();
+    }
+
+    @Override
+    public void reveal(int cell) {
+        viewport.reveal(board.rowOf(cell), board.colOf(cell));
+    }
+
+    @Override
+    public void fadeOut(TurnScript script, int step, Runnable onFinished) {
+        fading.clear();
+        afterFade = onFinished;
+        scheduler.beginPhase(clearFaded);
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            int cell = script.getCell(i);
+            fading.add(cell);
+            if (slotOf(cell) >= 0) {
+                scheduler.add(cell, TweenScheduler.OPACITY, 1.0, 0.0, TweenScheduler.FADE_NANOS);
+            }
+        }
+        scheduler.endPhase();
+    }
+
+    // Like the node view, faded cells show empty until the next DROP step fills them
+    private void clearFaded() {
+        for (int cell = fading.nextCell(0); cell >= 0; cell = fading.nextCell(cell + 1)) {
+            show(cell, Board.EMPTY, Boosters.NONE);
+            int slot = slotOf(cell);
+            if (slot >= 0) alpha[slot] = 1.0;
+        }
+        Runnable done = afterFade;
+        afterFade = null;
+        done.run();
+    }
+
+    @Override
+    public void animateDrops(TurnScript script, int step, Runnable after) {
+        scheduler.beginPhase(after);
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            int target = script.getCell(i);
+            int fromRow = script.getAux(i);
+            show(target, script.getColor(i), script.getBooster(i));
+            if (slotOf(target) < 0) continue;
+            scheduler.add(target, TweenScheduler.TRANSLATE_Y,
+                    (board.rowOf(target) - fromRow) * -viewport.getSlot(), 0, TweenScheduler.DROP_NANOS);
+            if (fromRow == DropList.SPAWNED) {
+                scheduler.add(target, TweenScheduler.OPACITY, 0, 1, TweenScheduler.DROP_NANOS);
+            }
+        }
+        scheduler.endPhase();
+    }
+
+    @Override
+    public void animateShuffle(TurnScript script, int step, Runnable after) {
+        scheduler.beginPhase(after);
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            int cell = script.getCell(i);
+            int source = script.getAux(i);
+            show(cell, script.getColor(i), script.getBooster(i));
+            if (slotOf(cell) < 0) continue;
+            if (source < 0) {
+                scheduler.add(cell, TweenScheduler.OPACITY, 0, 1, TweenScheduler.SHUFFLE_NANOS);
+            } else {
+                scheduler.add(cell, TweenScheduler.TRANSLATE_X,
+                        (board.colOf(source) - board.colOf(cell)) * viewport.getSlot(), 0,
+                        TweenScheduler.SHUFFLE_NANOS);
+                scheduler.add(cell, TweenScheduler.TRANSLATE_Y,
+                        (board.rowOf(source) - board.rowOf(cell)) * viewport.getSlot(), 0,
+                        TweenScheduler.SHUFFLE_NANOS);
+            }
+        }
+        scheduler.endPhase();
+    }
+
+    @Override
+    public void setTimeScale(double timeScale) {
+        scheduler.setTimeScale(timeScale);
+    }
+
+    @Override
+    public void apply(int cell, int property, double value) {
+        int slot = slotOf(cell);
+        if (slot < 0) return;
+        switch (property) {
+            case TweenScheduler.OPACITY:
+                alpha[slot] = value;
+                dirtyCells.add(cell);
+                break;
+            case TweenScheduler.TRANSLATE_X:
+                // Sideways moves cross columns, so those frames are redrawn in full
+                offsetX[slot] = value;
+                fullRedraw = true;
+                break;
+            case TweenScheduler.TRANSLATE_Y:
+                offsetY[slot] = value;
+                dirtyColumns[board.colOf(cell)] = true;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tween property: " + property);
+        }
+    }
+
+    @Override
+    public void frameDone(long now) {
+        frameTime = now;
+        pulsing = false;
+        // Only the visible rows are searched; bombs left or right of the view are skipped
+        int end = lastRow * board.getWidth();
+        for (int cell = colorBombs.nextCell(firstRow * board.getWidth()); cell >= 0 && cell < end;
+             cell = colorBombs.nextCell(cell + 1)) {
+            if (slotOf(cell) < 0) continue;
+            dirtyCells.add(cell);
+            pulsing = true;
+        }
+        redraw();
+    }
+
+    // Visible color bombs pulse on every frame
+    @Override
+    public boolean needsFrames() {
+        return pulsing;
+    }
+
+    @Override
+    public void show(int cell, byte color, byte booster) {
+        if (color == shownColors[cell] && booster == shownBoosters[cell]) return;
+        if (booster != shownBoosters[cell]) {
+            if (booster == Boosters.COLOR_BOMB) colorBombs.add(cell); else colorBombs.remove(cell);
+        }
+        shownColors[cell] = color;
+        shownBoosters[cell] = booster;
+        dirtyCells.add(cell);
+        scheduler.requestFrame();
+    }
+
+    // Called by the viewport whenever the visible cells, the zoom or the view size change. Running
+    // tweens write their values again on the next pulse, so the slot arrays simply start over
+    private void viewportChanged() {
+        canvas.setWidth(viewport.getWidth());
+        canvas.setHeight(viewport.getHeight());
+        int slots = viewport.getMaxRows() * viewport.getMaxCols();
+        if (slots > alpha.length) {
+            alpha = new double[slots];
+            offsetX = new double[slots];
+            offsetY = new double[slots];
+        }
+        Arrays.fill(alpha, 1.0);
+        Arrays.fill(offsetX, 0);
+        Arrays.fill(offsetY, 0);
+        slotCols = Math.max(1, viewport.getMaxCols());
+        firstRow = viewport.getFirstRow();
+        firstCol = viewport.getFirstCol();
+        lastRow = viewport.getLastRow();
+        lastCol = viewport.getLastCol();
+        fullRedraw = true;
+        scheduler.requestFrame();
+    }
+
+    // Index into the tween arrays, or -1 for a cell out of view
+    private int slotOf(int cell) {
+        int row = board.rowOf(cell);
+        int col = board.colOf(cell);
+        if (row < firstRow || row >= lastRow || col < firstCol || col >= lastCol) return -1;
+        return (row - firstRow) * slotCols + (col - firstCol);
+    }
+
+    private void redraw() {
+        if (fullRedraw) {
+            gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            for (int row = firstRow; row < lastRow; row++) {
+                for (int col = firstCol; col < lastCol; col++) {
+                    drawCell(board.index(row, col));
+                }
+            }
+            fullRedraw = false;
+            Arrays.fill(dirtyColumns, false);
+            dirtyCells.clear();
+            return;
+        }
+
+        int slot = viewport.getSlot();
+        for (int col = firstCol; col < lastCol; col++) {
+            if (!dirtyColumns[col]) continue;
+            double x = viewport.cellX(col) - GAP / 2.0;
+            gc.save();
+            gc.beginPath();
+            gc.rect(x, 0, slot, canvas.getHeight());
+            gc.clip();
+            gc.clearRect(x, 0, slot, canvas.getHeight());
+            for (int row = firstRow; row < lastRow; row++) {
+                drawCell(board.index(row, col));
+            }
+            gc.restore();
+        }
+        for (int cell = dirtyCells.nextCell(0); cell >= 0; cell = dirtyCells.nextCell(cell + 1)) {
+            int row = board.rowOf(cell);
+            int col = board.colOf(cell);
+            if (dirtyColumns[col] || slotOf(cell) < 0) continue;
+            gc.clearRect(viewport.cellX(col) - GAP / 2.0, viewport.cellY(row) - GAP / 2.0, slot, slot);
+            drawCell(cell);
+        }
+        Arrays.fill(dirtyColumns, false);
+        dirtyCells.clear();
+    }
+
+    private void drawCell(int cell) {
+        int slot = slotOf(cell);
+        byte booster = shownBoosters[cell];
+        Image sprite = booster != Boosters.NONE ? boosterSprites[booster] : colorSprites[shownColors[cell]];
+        int tileSize = viewport.getTileSize();
+        double x = viewport.cellX(board.colOf(cell)) + offsetX[slot];
+        double y = viewport.cellY(board.rowOf(cell)) + offsetY[slot];
+
+        if (sprite != null) {
+            double size = tileSize;
+            if (booster == Boosters.COLOR_BOMB) {
+                // Same 1.0-1.1 pulse as TileAppearance.pulseScale()
+                long pulse = TweenScheduler.PULSE_NANOS;
+                double phase = (double) (frameTime % (2 * pulse)) / pulse;
+                size *= 1 + 0.1 * (phase < 1 ? phase : 2 - phase);
+            }
+            double inset = (tileSize - size) / 2;
+            gc.setGlobalAlpha(alpha[slot]);
+            gc.drawImage(sprite, x + inset, y + inset, size, size);
+            gc.setGlobalAlpha(1.0);
+        }
+        Image ring = selected.contains(cell) ? selectedRing : hinted.contains(cell) ? hintRing : null;
+        if (ring != null) {
+            gc.drawImage(ring, x - GAP / 2.0, y - GAP / 2.0, tileSize + GAP, tileSize + GAP);
+        }
+    }
+
+    private Image rasterize(Color fill, Color stroke, String glyph, Color glyphColor) {
+        int tileSize = baseTileSize;
+        Canvas scratch = new Canvas(tileSize, tileSize);
+        GraphicsContext g = scratch.getGraphicsContext2D();
+        g.setFill(fill);
+        g.fillRoundRect(1, 1, tileSize - 2, tileSize - 2, 10, 10);
+        g.setStroke(stroke);
+        g.setLineWidth(2);
+        g.strokeRoundRect(1, 1, tileSize - 2, tileSize - 2, 10, 10);
+        if (!glyph.isEmpty()) {
+            g.setFill(glyphColor);
+            g.setFont(Font.font(null, FontWeight.BOLD, 20));
+            g.setTextAlign(TextAlignment.CENTER);
+            g.setTextBaseline(VPos.CENTER);
+            g.fillText(glyph, tileSize / 2.0, tileSize / 2.0);
+        }
+        return snapshot(scratch);
+    }
+
+    private Image ring(Color color) {
+        int slot = baseTileSize + GAP;
+        Canvas scratch = new Canvas(slot, slot);
+        GraphicsContext g = scratch.getGraphicsContext2D();
+        g.setStroke(color);
+        g.setLineWidth(3);
+        g.strokeRoundRect(1.5, 1.5, slot - 3, slot - 3, 12, 12);
+        return snapshot(scratch);
+    }
+
+    private static Image snapshot(Canvas scratch) {
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return scratch.snapshot(params, null);
+    }
+}
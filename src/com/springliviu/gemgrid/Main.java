@@ -1,9 +1,20 @@
 package com.springliviu.gemgrid;
 
-import com.springliviu.gemgrid.services.BoosterHandler;
-import com.springliviu.gemgrid.services.GridAnimator;
-import com.springliviu.gemgrid.services.GridManipulator;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.MatchDetector;
+import com.springliviu.gemgrid.engine.MoveGenerator;
+import com.springliviu.gemgrid.engine.MoveLog;
+import com.springliviu.gemgrid.engine.SaveGame;
+import com.springliviu.gemgrid.engine.SwapResult;
+import com.springliviu.gemgrid.engine.TurnScript;
+import com.springliviu.gemgrid.events.TurnEvent;
+import com.springliviu.gemgrid.headless.Policy;
+import com.springliviu.gemgrid.headless.SearchPolicy;
 import com.springliviu.gemgrid.services.TileUtils;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -12,34 +23,114 @@ import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.input.KeyCode;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
 import javafx.stage.Stage;
-
-import java.util.*;
+import javafx.util.Duration;
+import jdk.jfr.EventType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class Main extends Application {
 
     private static final int TILE_SIZE = 50;
-    private static final int GRID_SIZE = 8;
 
-    private Tile[][] tiles = new Tile[GRID_SIZE][GRID_SIZE];
-    private Tile selectedTile = null;
-    private GridPane grid;
+    // -Dgemgrid.width, -Dgemgrid.height and -Dgemgrid.colors size the board; boards larger than the
+    // window scroll with the mouse wheel and zoom with Ctrl+wheel
+    private static final int WIDTH = Integer.getInteger("gemgrid.width", 8);
+    private static final int HEIGHT = Integer.getInteger("gemgrid.height", 8);
+    private static final int COLORS = Integer.getInteger("gemgrid.colors", 6);
+
+    // -Dgemgrid.parallelGravity=true compacts the columns of very large boards in parallel
+    private static final boolean PARALLEL_GRAVITY = Boolean.getBoolean("gemgrid.parallelGravity");
+
+    // -Dgemgrid.matcher=scan|bitboard|vector picks the match detector; -Dgemgrid.verifyMatches=true
+    // checks it against TileUtils.findMatchedTiles after every played-back drop
+    private static final String MATCHER = System.getProperty("gemgrid.matcher", "bitboard");
+    private static final boolean VERIFY_MATCHES = Boolean.getBoolean("gemgrid.verifyMatches");
+
+    // -Dgemgrid.seed fixes the seed sequence of all games; -Dgemgrid.recordDir saves a move log per game
+    private static final String RECORD_DIR = System.getProperty("gemgrid.recordDir");
+
+    // -Dgemgrid.renderer=nodes|canvas picks the board view, to compare frame times and heap use
+    private static final String RENDERER = System.getProperty("gemgrid.renderer", "nodes");
+
+    // -Dgemgrid.speed=normal|fast|turbo sets the starting animation speed; the S key cycles through them
+    private static final String SPEED = System.getProperty("gemgrid.speed", "normal");
+
+    // -Dgemgrid.hud=true shows frame and turn timings from the start; F3 toggles them
+    private static final boolean HUD = Boolean.getBoolean("gemgrid.hud");
+
+    // -Dgemgrid.saveFile moves the save slot; it is written on pause and on exit, and resumed on start
+    // unless -Dgemgrid.seed asks for a fixed game sequence
+    private static final Path SAVE_FILE = Paths.get(System.getProperty("gemgrid.saveFile",
+            Paths.get(System.getProperty("user.home"), ".gemgrid", "save.ggsv").toString()));
+
+    // -Dgemgrid.autoplay=true starts with the search player making the moves; the A key toggles it.
+    // -Dgemgrid.autoplayMs is its thinking time per move
+    private static final boolean AUTOPLAY = Boolean.getBoolean("gemgrid.autoplay");
+    private static final long AUTOPLAY_MS = Long.getLong("gemgrid.autoplayMs", 50);
+
+    // Like the engine's events, a TurnEvent is only created while a recording enables it
+    private static final EventType TURN_EVENTS = EventType.getEventType(TurnEvent.class);
+
+    // Idle time on a settled board before a productive swap is highlighted
+    private static final Duration HINT_DELAY = Duration.seconds(5);
+
+    private final Board board = new Board(WIDTH, HEIGHT, Palette.checkColorCount(COLORS));
+    private final GameEngine engine = new GameEngine(board, new GameRandom(0), MatchDetector.create(MATCHER, board));
+    private final TurnScript script = new TurnScript(board);
+    private final Board played = new Board(WIDTH, HEIGHT, COLORS);
+    private final GameRandom seeds = new GameRandom(Long.getLong("gemgrid.seed", System.nanoTime()));
+    private MoveLog moveLog;
+    private long gameSeed;
+    private int moveCount;
+    private Runnable afterTurn;
+    private final ExecutorService saver = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gemgrid-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean resolving = false;
+    // The search works on its own copy of the game, off the FX thread; one worker per core but one
+    private final GameEngine searchEngine = new GameEngine(new Board(WIDTH, HEIGHT, COLORS), new GameRandom(0));
+    private final SearchPolicy searchPolicy = new SearchPolicy(TimeUnit.MILLISECONDS.toNanos(AUTOPLAY_MS), 0,
+            Policy.SEARCH_DEPTH, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "gemgrid-autoplay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private boolean autoPlay = AUTOPLAY;
+    private boolean searching;
+    private final PauseTransition hintTimer = new PauseTransition(HINT_DELAY);
+    private int hintFirst = -1;
+    private int hintSecond = -1;
+    private int selectedCell = -1;
+    private AnimationSpeed speed = AnimationSpeed.parse(SPEED);
+    private BoardView view;
     private MenuOverlay menu;
     private Label scoreLabel;
-    private int score = 0;
-    private final Random random = new Random();
-    private static Main instance;
+    private PerformanceHud hud;
+    private Label speedLabel;
+    private Label autoPlayLabel;
     @Override
     public void start(Stage stage) {
-        grid = new GridPane();
-        grid.setHgap(5);
-        grid.setVgap(5);
-        grid.setPadding(new Insets(10));
-
-        initGrid();
+        engine.setScript(script);
+        engine.getGravity().setParallel(PARALLEL_GRAVITY);
+        view = BoardView.create(RENDERER, board, TILE_SIZE);
+        view.setOnCellClicked(this::handleClick);
+        hintTimer.setOnFinished(e -> showHint());
 
         Label logoLabel = new Label("GemGrid");
         logoLabel.setStyle("-fx-font-size: 24px; -fx-font-weight: bold;");
@@ -47,10 +138,19 @@ public class Main extends Application {
         scoreLabel = new Label("Score: 0");
         scoreLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
 
+        speedLabel = new Label();
+        setSpeed(speed);
+
+        autoPlayLabel = new Label("Auto play");
+        autoPlayLabel.setVisible(autoPlay);
+
         Button pauseButton = new Button("Pause");
-        pauseButton.setOnAction(e -> menu.setVisible(!menu.isVisible()));
+        pauseButton.setOnAction(e -> togglePause());
+
+        hud = new PerformanceHud();
+        hud.setShown(HUD);
 
-        HBox topBar = new HBox(20, scoreLabel, pauseButton);
+        HBox topBar = new HBox(20, hud, autoPlayLabel, speedLabel, scoreLabel, pauseButton);
         topBar.setAlignment(Pos.CENTER_RIGHT);
         topBar.setPadding(new Insets(0, 20, 0, 20));
 
@@ -60,13 +160,18 @@ public class Main extends Application {
 
         menu = new MenuOverlay(() -> {
             menu.setVisible(false);
-            Platform.runLater(this::startGame);
-        }, Platform::exit);
+            Platform.runLater(() -> whenSettled(this::startGame));
+        }, this::saveGame, () -> whenSettled(() -> {
+            // Hidden first, so the loaded game can resume auto play; back on screen if nothing loaded
+            menu.setVisible(false);
+            if (!loadGame()) menu.setVisible(true);
+        }), Platform::exit);
         menu.setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
         menu.setVisible(false);
 
-        StackPane gameArea = new StackPane(grid, menu);
+        StackPane gameArea = new StackPane(view.getNode(), menu);
         VBox mainLayout = new VBox(header, gameArea);
+        VBox.setVgrow(gameArea, Priority.ALWAYS);
         mainLayout.setSpacing(10);
         mainLayout.setPadding(new Insets(10));
 
@@ -74,222 +179,382 @@ public class Main extends Application {
         stage.setScene(scene);
         stage.setTitle("GemGrid");
         stage.show();
-        instance = this;
-
 
         scene.setOnKeyPressed(e -> {
             if (e.getCode() == KeyCode.ESCAPE) {
-                menu.setVisible(!menu.isVisible());
+                togglePause();
+            } else if (e.getCode() == KeyCode.S) {
+                setSpeed(speed.next());
+            } else if (e.getCode() == KeyCode.F3) {
+                hud.setShown(!hud.isShown());
+            } else if (e.getCode() == KeyCode.A) {
+                setAutoPlay(!autoPlay);
             }
         });
 
-        startGame();
+        if (System.getProperty("gemgrid.seed") != null || !loadGame()) {
+            startGame();
+        }
     }
 
-    public static void addToScore(int points) {
-        if (instance != null) {
-            instance.score += points;
-            instance.updateScore();
+    @Override
+    public void stop() throws InterruptedException {
+        saveMoveLog();
+
+        // Exiting may block: let pending autosaves finish, then save the final state
+        saver.shutdown();
+        saver.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            SaveGame.write(SaveGame.encode(engine, gameSeed, moveCount), SAVE_FILE);
+        } catch (IOException e) {
+            System.err.println("Could not save game " + SAVE_FILE + ": " + e.getMessage());
         }
     }
 
+    private void startGame() {
+        saveMoveLog();
 
-    private void initGrid() {
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                Tile tile = new Tile(row, col, TILE_SIZE, randomColor());
-                tiles[row][col] = tile;
-                tile.setOnMouseClicked(e -> handleClick(tile, e));
-                grid.add(tile, col, row);
-            }
-        }
+        gameSeed = seeds.nextLong();
+        engine.newGame(gameSeed);
+        moveLog = new MoveLog(WIDTH, HEIGHT, COLORS, gameSeed);
+        moveCount = 0;
+        showGame();
     }
 
-    private void startGame() {
-        score = 0;
+    private void showGame() {
+        resolving = false;
         updateScore();
 
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                tiles[row][col].setTileColor(randomColor());
-                tiles[row][col].setBooster(BoosterType.NONE);
-                tiles[row][col].setSelected(false);
-            }
+        view.showBoard();
+        played.copyFrom(board);
+        if (selectedCell >= 0) {
+            view.setSelected(selectedCell, false);
+            selectedCell = -1;
         }
-
-        removeInitialMatches();
+        restartHintTimer();
+        autoPlayNext();
     }
 
-    private void removeInitialMatches() {
-        while (TileUtils.findMatchedTiles(tiles).size() > 0) {
-            for (int row = 0; row < GRID_SIZE; row++) {
-                for (int col = 0; col < GRID_SIZE; col++) {
-                    tiles[row][col].setTileColor(randomColor());
-                    tiles[row][col].setBooster(BoosterType.NONE);
-                }
-            }
+    // Runs the action now, or once the turn being played back is done, so it never races the animation
+    private void whenSettled(Runnable action) {
+        if (resolving) {
+            afterTurn = action;
+        } else {
+            action.run();
         }
     }
 
-    private void updateScore() {
-        scoreLabel.setText("Score: " + score);
+    private void togglePause() {
+        menu.setVisible(!menu.isVisible());
+        if (menu.isVisible()) {
+            saveGame();
+        } else {
+            autoPlayNext();
+        }
     }
 
-    private Color randomColor() {
-        Color[] colors = {
-                Color.RED, Color.GREEN, Color.BLUE,
-                Color.YELLOW, Color.ORANGE, Color.PURPLE
-        };
-        return colors[random.nextInt(colors.length)];
+    // Packs the game on the FX thread, which takes microseconds, and leaves the file I/O to the saver.
+    // The engine has already resolved the current turn, so this is safe mid-animation
+    private void saveGame() {
+        ByteBuffer data = SaveGame.encode(engine, gameSeed, moveCount);
+        saver.execute(() -> {
+            try {
+                SaveGame.write(data, SAVE_FILE);
+            } catch (IOException e) {
+                System.err.println("Could not save game " + SAVE_FILE + ": " + e.getMessage());
+            }
+        });
     }
 
-    public static void triggerEndAction() {
-        if (instance != null) {
-            instance.endAction();
+    // Restores the saved game; false if there is none or it does not fit this board.
+    // A resumed game cannot be replayed from its seed, so it records no move log
+    private boolean loadGame() {
+        try {
+            SaveGame save = SaveGame.read(SAVE_FILE);
+            if (save.getWidth() != WIDTH || save.getHeight() != HEIGHT || save.getColorCount() != COLORS) {
+                throw new IOException("saved board does not fit this game");
+            }
+            saveMoveLog();
+            moveLog = null;
+            save.restore(engine);
+            gameSeed = save.getSeed();
+            moveCount = save.getMoveCount();
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            System.err.println("Could not load game " + SAVE_FILE + ": " + e.getMessage());
+            return false;
         }
+        showGame();
+        return true;
     }
 
+    // Writes the current game's moves to the record directory, if one is configured
+    private void saveMoveLog() {
+        if (RECORD_DIR == null || moveLog == null || moveLog.getMoveCount() == 0) return;
 
-    private void handleClick(Tile tile, MouseEvent event) {
-        if (menu.isVisible()) return;
+        // Turns are resolved before they are animated, so the board is final even mid-animation
+        moveLog.finish(engine.getScore(), board.contentHash());
 
-        if (selectedTile == null) {
-            selectedTile = tile;
-            tile.setSelected(true);
-        } else {
-            if (tile == selectedTile) {
-                tile.setSelected(false);
-                selectedTile = null;
-                return;
+        Path file = Paths.get(RECORD_DIR, String.format("game-%016x.ggml", moveLog.getSeed()));
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(file)) {
+                moveLog.writeTo(out);
             }
+        } catch (IOException e) {
+            System.err.println("Could not save move log " + file + ": " + e.getMessage());
+        }
+        moveLog = null;
+    }
+
+    // Takes effect from the next animation; a turbo switch mid-turn skips the steps not yet played
+    private void setSpeed(AnimationSpeed speed) {
+        this.speed = speed;
+        if (speed != AnimationSpeed.TURBO) {
+            view.setTimeScale(speed.getTimeScale());
+        }
+        speedLabel.setText("Speed: " + speed.name().toLowerCase(Locale.ROOT));
+    }
 
-            if (areAdjacent(selectedTile, tile)) {
-                Tile first = selectedTile;
-                Tile second = tile;
+    private void restartHintTimer() {
+        clearHint();
+        hintTimer.playFromStart();
+    }
 
-                BoosterType boosterA = first.getBooster();
-                BoosterType boosterB = second.getBooster();
+    private void clearHint() {
+        if (hintFirst < 0) return;
+        view.setHinted(hintFirst, false);
+        view.setHinted(hintSecond, false);
+        hintFirst = -1;
+        hintSecond = -1;
+    }
 
-                selectedTile.setSelected(false);
-                selectedTile = null;
+    // Highlights the first productive swap in scan order
+    private void showHint() {
+        if (menu.isVisible() || resolving) {
+            hintTimer.playFromStart();
+            return;
+        }
 
-                // Always swap before processing boosters
-                swapTiles(first, second);
+        MoveGenerator moves = engine.findMoves();
+        int first = moves.getRightPairs().nextCell(0);
+        int second = first + 1;
+        if (first < 0) {
+            first = moves.getDownPairs().nextCell(0);
+            second = first + WIDTH;
+        }
+        if (first < 0) return;
 
-                // COLOR_BOMB + COLOR_BOMB or COLOR_BOMB + other booster or tile
-                if (boosterA == BoosterType.COLOR_BOMB || boosterB == BoosterType.COLOR_BOMB) {
-                    BoosterHandler.triggerColorBombCombo(first, second, tiles, random);
-                    Platform.runLater(this::endAction);
-                }
+        hintFirst = first;
+        hintSecond = second;
+        view.setHinted(first, true);
+        view.setHinted(second, true);
+        view.reveal(first);
+    }
 
-                // ROW + ROW or COLUMN + COLUMN  or ROW + COLUMN→ Cross explosion
-                else if ((boosterA == BoosterType.ROW && boosterB == BoosterType.ROW) ||
-                        (boosterA == BoosterType.COLUMN && boosterB == BoosterType.COLUMN) ||
-                        (boosterA == BoosterType.ROW && boosterB == BoosterType.COLUMN) ||
-                        (boosterA == BoosterType.COLUMN && boosterB == BoosterType.ROW)) {
+    private void updateScore() {
+        updateScore(engine.getScore());
+    }
 
-                    // Use the destination tile as center of explosion
-                    BoosterHandler.triggerLineBoosterCombo(second, tiles, this::endAction);
-                }
+    private void updateScore(int score) {
+        scoreLabel.setText("Score: " + score);
+    }
 
+    private void handleClick(int cell) {
+        // Moves are only taken on a settled board, so every game can be replayed move by move
+        if (menu.isVisible() || resolving) return;
+        restartHintTimer();
 
-                // One booster only
-                else if (boosterA != BoosterType.NONE || boosterB != BoosterType.NONE) {
-                    Tile triggered = (boosterA != BoosterType.NONE) ? second : first;
-                    BoosterHandler.activateBooster(triggered, tiles, this::endAction);
-                }
+        if (selectedCell < 0) {
+            selectedCell = cell;
+            view.setSelected(cell, true);
+        } else {
+            if (cell == selectedCell) {
+                view.setSelected(cell, false);
+                selectedCell = -1;
+                return;
+            }
 
-                // Normal tiles: check for match, else swap back
-                else {
-                    if (TileUtils.isMatch(tiles, first.getRow(), first.getCol()) ||
-                            TileUtils.isMatch(tiles, second.getRow(), second.getCol())) {
-                        endAction();
-                    } else {
-                        swapTiles(first, second); // revert swap if no match
-                    }
-                }
+            int first = selectedCell;
+            int second = cell;
+
+            if (board.areAdjacent(first, second)) {
+                view.setSelected(first, false);
+                selectedCell = -1;
+                playTurn(first, second);
             } else {
                 // Clicked non-adjacent tile — reselect
-                selectedTile.setSelected(false);
-                selectedTile = tile;
-                tile.setSelected(true);
+                view.setSelected(selectedCell, false);
+                selectedCell = cell;
+                view.setSelected(cell, true);
             }
         }
     }
 
+    // The engine resolves the whole turn at once, or reverts a swap that matches nothing;
+    // the view then only plays back the recorded script
+    private void playTurn(int first, int second) {
+        TurnEvent event = TURN_EVENTS.isEnabled() ? new TurnEvent() : null;
+        if (event != null) event.begin();
+        long started = System.nanoTime();
+        SwapResult result = engine.play(first, second);
+        hud.setTurnNanos(System.nanoTime() - started);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.width = board.getWidth();
+                event.height = board.getHeight();
+                event.result = result.name();
+                event.cellsCleared = engine.getTurnCleared();
+                event.cascadeDepth = engine.getCascadeDepth();
+                event.commit();
+            }
+        }
+        if (result == SwapResult.REJECTED) return;
 
-    private boolean areAdjacent(Tile a, Tile b) {
-        int dr = Math.abs(a.getRow() - b.getRow());
-        int dc = Math.abs(a.getCol() - b.getCol());
-        return (dr + dc == 1);
+        if (moveLog != null) moveLog.add(first, second);
+        moveCount++;
+        resolving = true;
+        playStep(0);
     }
 
-    private void swapTiles(Tile a, Tile b) {
-        Color tempColor = a.getTileColor();
-        BoosterType tempBooster = a.getBooster();
-
-        a.setTileColor(b.getTileColor());
-        a.setBooster(b.getBooster());
-
-        b.setTileColor(tempColor);
-        b.setBooster(tempBooster);
+    private void setAutoPlay(boolean on) {
+        autoPlay = on;
+        autoPlayLabel.setVisible(on);
+        autoPlayNext();
     }
 
-    private void endAction() {
-        GridManipulator.applyGravity(tiles, random, () -> {
-            Set<Tile> matched = TileUtils.findMatchedTiles(tiles);
-
-            if (!matched.isEmpty()) {
-                Map<Tile, BoosterType> boosters = TileUtils.classifyMatchesAndBoosters(tiles, matched);
-
-                // Count how many tiles will fade out (non-booster matches)
-                int totalToFade = 0;
-                for (Tile tile : matched) {
-                    if (!boosters.containsKey(tile)) {
-                        totalToFade++;
+    // Starts a search for the next move once the board is settled. The result is only played if the
+    // board still has the hash it was searched on; a new game or load in between searches again
+    private void autoPlayNext() {
+        if (!autoPlay || searching || resolving || menu.isVisible()) return;
+        searching = true;
+        searchEngine.copyFrom(engine);
+        long searched = board.getHash();
+        searcher.execute(() -> {
+            boolean found = searchPolicy.search(searchEngine);
+            int first = searchPolicy.getBestFirst();
+            int second = searchPolicy.getBestSecond();
+            Platform.runLater(() -> {
+                searching = false;
+                if (board.getHash() != searched) {
+                    autoPlayNext();
+                } else if (!found) {
+                    setAutoPlay(false);
+                } else if (autoPlay && !resolving && !menu.isVisible()) {
+                    if (selectedCell >= 0) {
+                        view.setSelected(selectedCell, false);
+                        selectedCell = -1;
                     }
+                    playTurn(first, second);
                 }
+            });
+        });
+    }
 
-                int[] remaining = {totalToFade};
-
-                // Start fading out matched tiles
-                for (Tile tile : matched) {
-                    if (boosters.containsKey(tile)) {
-                        // Booster tiles stay; will be updated visually after fades
-                        continue;
-                    }
+    // Plays one script step, then the next once its animation is done
+    private void playStep(int step) {
+        if (step == script.getStepCount()) {
+            if (VERIFY_MATCHES) {
+                verifyPlayback();
+            }
+            endTurn();
+            return;
+        }
 
-                    GridAnimator.fadeOutTile(tile, () -> {
-                        remaining[0]--;
-                        if (remaining[0] == 0) {
-                            Platform.runLater(this::endAction); // Trigger again after all fades complete
-                        }
-                    });
+        if (speed == AnimationSpeed.TURBO) {
+            // Steps run one after another, so nothing is animating here; show the final board at once
+            view.showBoard();
+            played.copyFrom(board);
+            updateScore();
+            endTurn();
+            return;
+        }
 
-                    score += 10;
+        updateScore(script.getScore(step));
+        if (VERIFY_MATCHES) {
+            applyToPlayed(step);
+        }
+        Runnable next = () -> playStep(step + 1);
+        switch (script.getKind(step)) {
+            case TurnScript.SHOW:
+                for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+                    view.show(script.getCell(i), script.getColor(i), script.getBooster(i));
                 }
+                next.run();
+                break;
+            case TurnScript.FADE:
+                view.fadeOut(script, step, next);
+                break;
+            case TurnScript.DROP:
+                view.animateDrops(script, step, () -> {
+                    if (VERIFY_MATCHES) {
+                        verifyMatches();
+                    }
+                    next.run();
+                });
+                break;
+            case TurnScript.SHUFFLE:
+                view.animateShuffle(script, step, next);
+                break;
+            default:
+                throw new IllegalStateException("Unknown script step: " + script.getKind(step));
+        }
+    }
 
-                // Apply boosters after fade begins to avoid removing them prematurely
-                for (Map.Entry<Tile, BoosterType> entry : boosters.entrySet()) {
-                    Tile tile = entry.getKey();
-                    tile.setBooster(entry.getValue());
+    private void endTurn() {
+        resolving = false;
+        restartHintTimer();
+        if (afterTurn != null) {
+            Runnable action = afterTurn;
+            afterTurn = null;
+            action.run();
+        }
+        autoPlayNext();
+    }
 
-                    // Use black as neutral marker color; visual cue
-                    tile.setTileColor(Color.BLACK);
-                }
+    // Keeps 'played' at what the view shows, so the detector sees the same board as the tiles
+    private void applyToPlayed(int step) {
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            if (script.getKind(step) == TurnScript.FADE) {
+                played.clear(script.getCell(i));
+            } else {
+                played.set(script.getCell(i), script.getColor(i), script.getBooster(i));
+            }
+        }
+    }
 
-                updateScore();
+    // A played-back turn must end on exactly the board the engine resolved
+    private void verifyPlayback() {
+        if (played.getHash() != board.getHash()) {
+            throw new IllegalStateException("Played-back turn does not match the engine board");
+        }
+    }
 
-                // If nothing needed to fade, continue loop immediately
-                if (totalToFade == 0) {
-                    Platform.runLater(this::endAction);
+    // Checks the engine detector against TileUtils on a Tile grid built from what the view shows, so
+    // both must report the same cells
+    private void verifyMatches() {
+        Tile[][] tiles = new Tile[HEIGHT][WIDTH];
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                tiles[row][col] = new Tile(row, col, TILE_SIZE, null);
+                tiles[row][col].mirror(played);
+            }
+        }
+        Set<Tile> expected = TileUtils.findMatchedTiles(tiles);
+        CellMask actual = new CellMask(board.getSize());
+        engine.getMatchDetector().findMatches(played, actual);
+
+        for (int row = 0; row < HEIGHT; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                if (expected.contains(tiles[row][col]) != actual.contains(board.index(row, col))) {
+                    throw new IllegalStateException(MATCHER + " match detector disagrees with TileUtils at " + row + "," + col);
                 }
             }
-        });
+        }
     }
 
-
-
     public static void main(String[] args) {
         launch(args);
     }
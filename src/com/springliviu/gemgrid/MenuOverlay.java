@@ -7,22 +7,26 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 
-// Fullscreen pause menu with New Game and Exit buttons
+// Fullscreen pause menu with New Game, Save, Load and Exit buttons
 public class MenuOverlay extends StackPane {
 
-    public MenuOverlay(Runnable onNewGame, Runnable onExit) {
+    public MenuOverlay(Runnable onNewGame, Runnable onSave, Runnable onLoad, Runnable onExit) {
         Rectangle bg = new Rectangle();
         bg.setFill(Color.WHITE);
         bg.widthProperty().bind(widthProperty());
         bg.heightProperty().bind(heightProperty());
 
         Button newGameBtn = new Button("New Game");
+        Button saveBtn = new Button("Save");
+        Button loadBtn = new Button("Load");
         Button exitBtn = new Button("Exit");
 
         newGameBtn.setOnAction(e -> onNewGame.run());
+        saveBtn.setOnAction(e -> onSave.run());
+        loadBtn.setOnAction(e -> onLoad.run());
         exitBtn.setOnAction(e -> onExit.run());
 
-        VBox box = new VBox(20, newGameBtn, exitBtn);
+        VBox box = new VBox(20, newGameBtn, saveBtn, loadBtn, exitBtn);
         box.setAlignment(Pos.CENTER);
 
         getChildren().addAll(bg, box);
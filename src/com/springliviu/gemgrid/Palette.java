@@ -0,0 +1,39 @@
+package com.springliviu.gemgrid;
+
+import com.springliviu.gemgrid.engine.Board;
+import javafx.scene.paint.Color;
+
+// Maps engine color codes to the JavaFX colors shown on tiles
+public final class Palette {
+
+    // One entry per engine color code up to Board.MAX_COLORS; games use the first colorCount
+    private static final Color[] COLORS = {
+            Color.RED, Color.GREEN, Color.BLUE,
+            Color.YELLOW, Color.ORANGE, Color.PURPLE,
+            Color.CYAN, Color.HOTPINK, Color.SADDLEBROWN,
+            Color.LIMEGREEN, Color.TEAL, Color.NAVY,
+            Color.SILVER, Color.MAROON
+    };
+
+    private Palette() {
+    }
+
+    public static int size() {
+        return COLORS.length;
+    }
+
+    // Returns the count if a board with that many colors can be shown
+    public static int checkColorCount(int count) {
+        if (count < 3 || count > COLORS.length) {
+            throw new IllegalArgumentException("Color count must be in 3.." + COLORS.length + ": " + count);
+        }
+        return count;
+    }
+
+    // EMPTY maps to null and the booster marker to black, as Tile expects
+    public static Color toColor(byte code) {
+        if (code == Board.EMPTY) return null;
+        if (code == Board.MARKER) return Color.BLACK;
+        return COLORS[code - 1];
+    }
+}
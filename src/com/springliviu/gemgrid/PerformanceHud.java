@@ -0,0 +1,82 @@
+package com.springliviu.gemgrid;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.control.Label;
+
+import java.util.Arrays;
+
+// Frame rate, median and 99th percentile frame time over the last FRAMES pulses, and the game logic
+// time of the last turn. While hidden its timer is stopped, so it costs nothing
+public class PerformanceHud extends Label {
+
+    private static final int FRAMES = 240;
+    private static final long REFRESH_NANOS = 500_000_000L;
+
+    private final long[] frameNanos = new long[FRAMES];
+    private final long[] sorted = new long[FRAMES];
+    private int frameCount;
+    private int next;
+    private long lastFrame;
+    private long lastRefresh;
+    private long turnNanos;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            onFrame(now);
+        }
+    };
+
+    public PerformanceHud() {
+        setStyle("-fx-font-family: monospace; -fx-font-size: 12px;");
+        setManaged(false);
+        setVisible(false);
+    }
+
+    public boolean isShown() {
+        return isVisible();
+    }
+
+    public void setShown(boolean shown) {
+        if (shown == isVisible()) return;
+        setVisible(shown);
+        setManaged(shown);
+        if (shown) {
+            frameCount = 0;
+            next = 0;
+            lastFrame = 0;
+            lastRefresh = 0;
+            setText("FPS --");
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    // Game logic time of the last turn, shown on the next refresh
+    public void setTurnNanos(long nanos) {
+        this.turnNanos = nanos;
+    }
+
+    private void onFrame(long now) {
+        if (lastFrame != 0) {
+            frameNanos[next] = now - lastFrame;
+            next = (next + 1) % FRAMES;
+            if (frameCount < FRAMES) frameCount++;
+        }
+        lastFrame = now;
+        if (now - lastRefresh < REFRESH_NANOS || frameCount == 0) return;
+        lastRefresh = now;
+
+        System.arraycopy(frameNanos, 0, sorted, 0, frameCount);
+        Arrays.sort(sorted, 0, frameCount);
+        long total = 0;
+        for (int i = 0; i < frameCount; i++) {
+            total += sorted[i];
+        }
+        double fps = frameCount * 1e9 / total;
+        double p50 = sorted[(frameCount - 1) / 2] / 1e6;
+        double p99 = sorted[(int) Math.ceil(frameCount * 0.99) - 1] / 1e6;
+        setText(String.format("FPS %.0f  p50 %.1f ms  p99 %.1f ms  turn %.3f ms", fps, p50, p99, turnNanos / 1e6));
+    }
+}
@@ -1,26 +1,26 @@
 package com.springliviu.gemgrid;
 
-import javafx.animation.Animation;
-import javafx.animation.ScaleTransition;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.Boosters;
 import javafx.geometry.Pos;
 import javafx.scene.control.Label;
-import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.util.Duration;
 
 // Represents a single tile in the game grid
 public class Tile extends StackPane {
-    private final int row;
-    private final int col;
+    private int row;
+    private int col;
     private Color color;
     private BoosterType booster = BoosterType.NONE;
     private boolean selected = false;
+    private boolean hinted = false;
 
     private final Rectangle background;
     private final Label symbolLabel;
-    private ScaleTransition pulseEffect;
+    private TileAppearance appearance;
 
     public Tile(int row, int col, int size, Color color) {
         this.row = row;
@@ -33,12 +33,10 @@ public class Tile extends StackPane {
         background = new Rectangle(size, size);
         background.setArcWidth(10);
         background.setArcHeight(10);
-        background.setStroke(Color.DARKGRAY);
         background.setStrokeWidth(2);
 
         symbolLabel = new Label();
         symbolLabel.setStyle("-fx-font-size: 20px; -fx-font-weight: bold;");
-        symbolLabel.setTextFill(Color.WHITE);
 
         getChildren().addAll(background, symbolLabel);
         updateAppearance();
@@ -46,77 +44,94 @@ public class Tile extends StackPane {
 
     public int getRow() { return row; }
     public int getCol() { return col; }
+
+    // Moves a pooled tile to another board cell; the caller then shows that cell's content
+    public void setCell(int row, int col) {
+        this.row = row;
+        this.col = col;
+    }
+
+    // Resizes the tile for a new zoom level
+    public void setSize(double size) {
+        if (size == background.getWidth()) return;
+        setPrefSize(size, size);
+        background.setWidth(size);
+        background.setHeight(size);
+    }
     public Color getTileColor() { return color; }
     public BoosterType getBooster() { return booster; }
 
     public void setTileColor(Color color) {
+        if (color == null ? this.color == null : color.equals(this.color)) return;
         this.color = color;
         updateAppearance();
     }
 
     public void setBooster(BoosterType booster) {
+        if (booster == this.booster) return;
         this.booster = booster;
         updateAppearance();
     }
 
+    // Copies this tile's cell from the engine board; untouched if it already shows that state
+    public void mirror(Board board) {
+        int cell = board.index(row, col);
+        show(board.getColor(cell), board.getBooster(cell));
+    }
+
+    // Shows an engine color and booster code, e.g. an intermediate state from a TurnScript
+    public void show(byte colorCode, byte boosterCode) {
+        Color newColor = Palette.toColor(colorCode);
+        BoosterType newBooster = Boosters.toType(boosterCode);
+        if (newBooster == booster && (newColor == null ? color == null : newColor.equals(color))) return;
+
+        this.color = newColor;
+        this.booster = newBooster;
+        updateAppearance();
+    }
+
     public void setSelected(boolean selected) {
+        if (selected == this.selected) return;
         this.selected = selected;
         updateAppearance();
     }
 
+    // Highlights a tile that is part of the suggested move
+    public void setHinted(boolean hinted) {
+        if (this.hinted == hinted) return;
+        this.hinted = hinted;
+        updateAppearance();
+    }
+
+    // Looks up the shared appearance and only touches what changed, so repeated setter calls
+    // during a cascade cost a couple of reference compares
     private void updateAppearance() {
-        // Cancel pulse animation if active
-        if (pulseEffect != null) {
-            pulseEffect.stop();
-            pulseEffect = null;
+        TileAppearance next = TileAppearance.of(color, booster);
+        if (next != appearance) {
+            if (appearance == null || next.fill != appearance.fill) background.setFill(next.fill);
+            if (appearance == null || next.stroke != appearance.stroke) background.setStroke(next.stroke);
+            if (appearance == null || !next.symbol.equals(appearance.symbol)) symbolLabel.setText(next.symbol);
+            if (appearance == null || next.symbolColor != appearance.symbolColor) symbolLabel.setTextFill(next.symbolColor);
+            if (appearance == null || next.pulses != appearance.pulses) setPulsing(next.pulses);
+            appearance = next;
         }
 
-        // Default style
-        background.setWidth(50);
-        background.setHeight(50);
-        background.setStroke(Color.DARKGRAY);
-        symbolLabel.setText("");
-        symbolLabel.setTextFill(Color.WHITE);
-
-        // Booster styles
-        switch (booster) {
-            case ROW:
-                background.setFill(Color.BLACK);
-                symbolLabel.setText("⇔");
-                break;
-            case COLUMN:
-                background.setFill(Color.BLACK);
-                symbolLabel.setText("⇕");
-                break;
-            case COLOR_BOMB:
-                background.setFill(Color.WHITE);
-                background.setStroke(Color.GRAY);
-                symbolLabel.setText("✴");
-                symbolLabel.setTextFill(Color.BLACK);
-
-                pulseEffect = new ScaleTransition(Duration.millis(600), this);
-                pulseEffect.setFromX(1.0);
-                pulseEffect.setToX(1.1);
-                pulseEffect.setFromY(1.0);
-                pulseEffect.setToY(1.1);
-                pulseEffect.setCycleCount(Animation.INDEFINITE);
-                pulseEffect.setAutoReverse(true);
-                pulseEffect.play();
-                break;
-            case NONE:
-            default:
-                background.setFill(color != null ? color : Color.TRANSPARENT);
-                break;
+        Effect effect = TileAppearance.highlight(selected, hinted);
+        if (effect != getEffect()) {
+            setEffect(effect);
         }
+    }
 
-        // Selection effect
-        if (selected) {
-            DropShadow glow = new DropShadow();
-            glow.setColor(Color.GOLD);
-            glow.setRadius(15);
-            setEffect(glow);
+    // Color bombs follow the one shared pulse instead of running their own ScaleTransition
+    private void setPulsing(boolean pulsing) {
+        if (pulsing) {
+            scaleXProperty().bind(TileAppearance.pulseScale());
+            scaleYProperty().bind(TileAppearance.pulseScale());
         } else {
-            setEffect(null);
+            scaleXProperty().unbind();
+            scaleYProperty().unbind();
+            setScaleX(1.0);
+            setScaleY(1.0);
         }
     }
 }
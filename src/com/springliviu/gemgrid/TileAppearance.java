@@ -0,0 +1,91 @@
+package com.springliviu.gemgrid;
+
+import com.springliviu.gemgrid.services.TweenScheduler;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.KeyValue;
+import javafx.animation.Timeline;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.effect.DropShadow;
+import javafx.scene.effect.Effect;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Shared, immutable look of a tile for one (color, booster) pair. Tiles compare appearances by
+// reference and only touch the nodes whose values differ. Highlight effects and the color bomb
+// pulse are shared by all tiles too
+final class TileAppearance {
+
+    private static final Map<Color, TileAppearance> PLAIN = new HashMap<>();
+    private static final TileAppearance EMPTY = new TileAppearance(Color.TRANSPARENT, Color.DARKGRAY, "", Color.WHITE, false);
+    private static final TileAppearance[] BOOSTERS = new TileAppearance[BoosterType.values().length];
+
+    private static final Effect SELECTED_GLOW = glow(Color.GOLD, 15, 0);
+    private static final Effect HINT_GLOW = glow(Color.WHITE, 20, 0.5);
+
+    private static final DoubleProperty PULSE_SCALE = new SimpleDoubleProperty(1.0);
+    private static Timeline pulse;
+
+    static {
+        BOOSTERS[BoosterType.ROW.ordinal()] = new TileAppearance(Color.BLACK, Color.DARKGRAY, "⇔", Color.WHITE, false);
+        BOOSTERS[BoosterType.COLUMN.ordinal()] = new TileAppearance(Color.BLACK, Color.DARKGRAY, "⇕", Color.WHITE, false);
+        BOOSTERS[BoosterType.COLOR_BOMB.ordinal()] = new TileAppearance(Color.WHITE, Color.GRAY, "✴", Color.BLACK, true);
+    }
+
+    final Color fill;
+    final Color stroke;
+    final String symbol;
+    final Color symbolColor;
+    final boolean pulses;
+
+    private TileAppearance(Color fill, Color stroke, String symbol, Color symbolColor, boolean pulses) {
+        this.fill = fill;
+        this.stroke = stroke;
+        this.symbol = symbol;
+        this.symbolColor = symbolColor;
+        this.pulses = pulses;
+    }
+
+    // Boosters look the same whatever color the cell carries
+    static TileAppearance of(Color color, BoosterType booster) {
+        if (booster != BoosterType.NONE) return BOOSTERS[booster.ordinal()];
+        if (color == null) return EMPTY;
+        return PLAIN.computeIfAbsent(color, TileAppearance::plain);
+    }
+
+    private static TileAppearance plain(Color color) {
+        return new TileAppearance(color, Color.DARKGRAY, "", Color.WHITE, false);
+    }
+
+    // Selection wins over the hint
+    static Effect highlight(boolean selected, boolean hinted) {
+        if (selected) return SELECTED_GLOW;
+        return hinted ? HINT_GLOW : null;
+    }
+
+    // One 1.0-1.1 scale oscillation that every color bomb binds to, started on first use
+    static ReadOnlyDoubleProperty pulseScale() {
+        if (pulse == null) {
+            pulse = new Timeline(
+                    new KeyFrame(Duration.ZERO, new KeyValue(PULSE_SCALE, 1.0)),
+                    new KeyFrame(Duration.millis(TweenScheduler.PULSE_NANOS / 1e6), new KeyValue(PULSE_SCALE, 1.1)));
+            pulse.setCycleCount(Animation.INDEFINITE);
+            pulse.setAutoReverse(true);
+            pulse.play();
+        }
+        return PULSE_SCALE;
+    }
+
+    private static Effect glow(Color color, double radius, double spread) {
+        DropShadow glow = new DropShadow();
+        glow.setColor(color);
+        glow.setRadius(radius);
+        glow.setSpread(spread);
+        return glow;
+    }
+}
@@ -0,0 +1,186 @@
+package com.springliviu.gemgrid;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.TurnScript;
+import com.springliviu.gemgrid.services.GridAnimator;
+import com.springliviu.gemgrid.services.GridManipulator;
+import javafx.scene.Node;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Node-based view: a pool of Tile nodes covering the visible part of the board. Scrolling rebinds the
+// pooled tiles to the cells that came into view, so the node count follows the window size, not the
+// board size. What every cell shows is kept in two byte arrays
+public class TileBoardView implements BoardView {
+
+    private final Board board;
+    private final BoardViewport viewport;
+    private final GridAnimator animator;
+
+    // What each cell currently shows, which lags the board while a turn plays back
+    private final byte[] shownColors;
+    private final byte[] shownBoosters;
+    private final CellMask selected;
+    private final CellMask hinted;
+
+    private Tile[] pool = new Tile[0];
+    private int poolCols = 1;
+    private int firstRow;
+    private int firstCol;
+    private int lastRow;
+    private int lastCol;
+    private IntConsumer clickHandler = cell -> { };
+
+    public TileBoardView(Board board, int tileSize) {
+        this.board = board;
+        this.shownColors = new byte[board.getSize()];
+        this.shownBoosters = new byte[board.getSize()];
+        this.selected = new CellMask(board.getSize());
+        this.hinted = new CellMask(board.getSize());
+
+        viewport = new BoardViewport(board.getWidth(), board.getHeight(), tileSize, this::layoutTiles);
+        viewport.setOnMouseClicked(e -> {
+            int row = viewport.rowAt(e.getY());
+            int col = viewport.colAt(e.getX());
+            if (row >= 0 && col >= 0) {
+                clickHandler.accept(board.index(row, col));
+            }
+        });
+        animator = new GridAnimator(this, board);
+    }
+
+    // The pooled Tile showing the cell, or null while the cell is scrolled out of view
+    public Tile tileAt(int cell) {
+        int row = board.rowOf(cell);
+        int col = board.colOf(cell);
+        if (row < firstRow || row >= lastRow || col < firstCol || col >= lastCol) return null;
+        return pool[(row - firstRow) * poolCols + (col - firstCol)];
+    }
+
+    // Distance between neighbouring tiles at the current zoom
+    public int getSlot() {
+        return viewport.getSlot();
+    }
+
+    @Override
+    public Node getNode() {
+        return viewport;
+    }
+
+    @Override
+    public void setOnCellClicked(IntConsumer handler) {
+        this.clickHandler = handler;
+    }
+
+    @Override
+    public void showBoard() {
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            show(cell, board.getColor(cell), board.getBooster(cell));
+        }
+    }
+
+    @Override
+    public void setSelected(int cell, boolean on) {
+        if (on) selected.add(cell); else selected.remove(cell);
+        Tile tile = tileAt(cell);
+        if (tile != null) tile.setSelected(on);
+    }
+
+    @Override
+    public void setHinted(int cell, boolean on) {
+        if (on) hinted.add(cell); else hinted.remove(cell);
+        Tile tile = tileAt(cell);
+        if (tile != null) tile.setHinted(on);
+    }
+
+    @Override
+    public void reveal(int cell) {
+        viewport.reveal(board.rowOf(cell), board.colOf(cell));
+    }
+
+    @Override
+    public void show(int cell, byte color, byte booster) {
+        shownColors[cell] = color;
+        shownBoosters[cell] = booster;
+        Tile tile = tileAt(cell);
+        if (tile != null) tile.show(color, booster);
+    }
+
+    @Override
+    public void fadeOut(TurnScript script, int step, Runnable onFinished) {
+        animator.fadeOutCells(script, step, onFinished);
+    }
+
+    @Override
+    public void animateDrops(TurnScript script, int step, Runnable after) {
+        GridManipulator.animateDrops(this, board, script, step, animator.getScheduler(), after);
+    }
+
+    @Override
+    public void animateShuffle(TurnScript script, int step, Runnable after) {
+        GridManipulator.animateShuffle(this, board, script, step, animator.getScheduler(), after);
+    }
+
+    @Override
+    public void setTimeScale(double timeScale) {
+        animator.getScheduler().setTimeScale(timeScale);
+    }
+
+    // Called by the viewport whenever the visible cells or the zoom change
+    private void layoutTiles() {
+        int rows = viewport.getMaxRows();
+        int cols = viewport.getMaxCols();
+        if (rows * cols > pool.length) {
+            growPool(rows * cols);
+        }
+        poolCols = Math.max(1, cols);
+        firstRow = viewport.getFirstRow();
+        firstCol = viewport.getFirstCol();
+        lastRow = viewport.getLastRow();
+        lastCol = viewport.getLastCol();
+
+        int size = viewport.getTileSize();
+        for (int i = 0; i < pool.length; i++) {
+            int row = firstRow + i / poolCols;
+            int col = firstCol + i % poolCols;
+            Tile tile = pool[i];
+            if (row >= lastRow || col >= lastCol) {
+                tile.setVisible(false);
+                tile.setCell(-1, -1);
+                continue;
+            }
+            bind(tile, row, col, size);
+        }
+    }
+
+    // Points a pooled tile at a cell; a tile that changes cells drops the tween values of its old one
+    private void bind(Tile tile, int row, int col, int size) {
+        int cell = board.index(row, col);
+        if (tile.getRow() != row || tile.getCol() != col) {
+            tile.setCell(row, col);
+            tile.setOpacity(1.0);
+            tile.setTranslateX(0);
+            tile.setTranslateY(0);
+        }
+        tile.show(shownColors[cell], shownBoosters[cell]);
+        tile.setSelected(selected.contains(cell));
+        tile.setHinted(hinted.contains(cell));
+        tile.setSize(size);
+        tile.resizeRelocate(viewport.cellX(col), viewport.cellY(row), size, size);
+        tile.setVisible(true);
+    }
+
+    private void growPool(int capacity) {
+        int old = pool.length;
+        pool = Arrays.copyOf(pool, capacity);
+        for (int i = old; i < capacity; i++) {
+            Tile tile = new Tile(-1, -1, viewport.getTileSize(), null);
+            tile.setManaged(false);
+            tile.setVisible(false);
+            pool[i] = tile;
+            viewport.getChildren().add(tile);
+        }
+    }
+}
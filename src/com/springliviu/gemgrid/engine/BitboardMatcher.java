@@ -0,0 +1,156 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Match detection with per-color bit masks. Each row is packed into 64-bit words; a horizontal run of 3
+// is m & (m >> 1) & (m >> 2) inside a row, a vertical one is the AND of three consecutive rows.
+// Boards of up to 64 cells take a single-word path that reads each color as one long straight from
+// the board's per-color masks
+public final class BitboardMatcher implements MatchDetector {
+
+    private static final int COLOR_SLOTS = Board.MARKER + 1;
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow;
+    private final long[][] rowMasks;   // [color][row * wordsPerRow + word]
+    private final long[] matchedRows;  // [row * wordsPerRow + word]
+    private final long horizontalStarts;
+
+    public BitboardMatcher(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.rowMasks = new long[COLOR_SLOTS][height * wordsPerRow];
+        this.matchedRows = new long[height * wordsPerRow];
+
+        // Cells that can start a horizontal run: columns 0..width-3 of every row
+        long starts = 0;
+        if (width * height <= 64) {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col + 2 < width; col++) {
+                    starts |= 1L << (row * width + col);
+                }
+            }
+        }
+        this.horizontalStarts = starts;
+    }
+
+    @Override
+    public boolean findMatches(Board board, CellMask out) {
+        checkSize(board);
+        if (board.getSize() <= 64) {
+            out.clear();
+            out.setWord(0, findMatchMask(board));
+            return !out.isEmpty();
+        }
+        return findRowPacked(board, out);
+    }
+
+    // Single-word variant for boards of up to 64 cells: bit i of the result is cell i
+    public long findMatchMask(Board board) {
+        checkSize(board);
+        if (board.getSize() > 64) {
+            throw new IllegalStateException("Board has more than 64 cells: " + board.getSize());
+        }
+
+        // Word 0 of the board's per-color masks is the whole color
+        int usedColors = 0;
+        for (byte color = 1; color <= Board.MARKER; color++) {
+            if (board.getPopulation(color) > 0) usedColors |= 1 << color;
+        }
+
+        long matched = 0;
+        int w2 = 2 * width;
+        while (usedColors != 0) {
+            int color = Integer.numberOfTrailingZeros(usedColors);
+            usedColors &= usedColors - 1;
+            long m = board.getColorCells((byte) color).getWord(0);
+
+            long h = m & (m >>> 1) & (m >>> 2) & horizontalStarts;
+            matched |= h | (h << 1) | (h << 2);
+
+            if (height >= 3) {
+                long v = m & (m >>> width) & (m >>> w2);
+                matched |= v | (v << width) | (v << w2);
+            }
+        }
+        return matched;
+    }
+
+    private boolean findRowPacked(Board board, CellMask out) {
+        int usedColors = 0;
+        for (int row = 0; row < height; row++) {
+            int base = board.index(row, 0);
+            for (int col = 0; col < width; col++) {
+                int color = board.getColor(base + col);
+                if (color == Board.EMPTY) continue;
+                if ((usedColors & (1 << color)) == 0) {
+                    usedColors |= 1 << color;
+                    Arrays.fill(rowMasks[color], 0L);
+                }
+                rowMasks[color][row * wordsPerRow + (col >>> 6)] |= 1L << col;
+            }
+        }
+
+        Arrays.fill(matchedRows, 0L);
+        while (usedColors != 0) {
+            int color = Integer.numberOfTrailingZeros(usedColors);
+            usedColors &= usedColors - 1;
+            long[] m = rowMasks[color];
+
+            for (int row = 0; row < height; row++) {
+                int base = row * wordsPerRow;
+
+                // Horizontal: run starts inside this row, spread back over the 3 cells
+                for (int w = 0; w < wordsPerRow; w++) {
+                    long h = m[base + w] & shiftRight(m, base, w, 1) & shiftRight(m, base, w, 2);
+                    if (h == 0) continue;
+                    matchedRows[base + w] |= h | (h << 1) | (h << 2);
+                    if (w + 1 < wordsPerRow) {
+                        matchedRows[base + w + 1] |= (h >>> 63) | (h >>> 62);
+                    }
+                }
+
+                // Vertical: three stacked rows, marked on all three
+                if (row + 2 < height) {
+                    for (int w = 0; w < wordsPerRow; w++) {
+                        long v = m[base + w] & m[base + wordsPerRow + w] & m[base + 2 * wordsPerRow + w];
+                        if (v == 0) continue;
+                        matchedRows[base + w] |= v;
+                        matchedRows[base + wordsPerRow + w] |= v;
+                        matchedRows[base + 2 * wordsPerRow + w] |= v;
+                    }
+                }
+            }
+        }
+
+        out.clear();
+        boolean any = false;
+        for (int row = 0; row < height; row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long bits = matchedRows[row * wordsPerRow + w];
+                if (bits == 0) continue;
+                out.addBits(row * width + (w << 6), bits);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    // Word 'w' of a row shifted right by 'k' (< 64) cells, pulling bits in from the next word
+    private long shiftRight(long[] m, int base, int w, int k) {
+        long word = m[base + w] >>> k;
+        if (w + 1 < wordsPerRow) {
+            word |= m[base + w + 1] << (64 - k);
+        }
+        return word;
+    }
+
+    private void checkSize(Board board) {
+        if (board.getWidth() != width || board.getHeight() != height) {
+            throw new IllegalArgumentException("Matcher built for " + width + "x" + height +
+                    ", got " + board.getWidth() + "x" + board.getHeight());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.springliviu.gemgrid.engine;
+
+// Headless board state: one byte per cell for color and one for booster, stored row by row. Every
+// write also updates the board's Zobrist hash, so the state can be identified in O(1), and the
+// per-color cell masks and counts, so finding or counting a color never walks the board
+public final class Board {
+
+    public static final byte EMPTY = 0;       // Cleared cell waiting for gravity
+    public static final byte MARKER = 15;     // Neutral color carried by booster tiles
+    public static final int MAX_COLORS = 14;  // Palette colors are coded 1..colorCount
+
+    private final int width;
+    private final int height;
+    private final int colorCount;
+    private final byte[] colors;
+    private final byte[] boosters;
+    private final DirtyRegion dirty;
+    private final CellMask[] colorCells = new CellMask[MARKER + 1];
+    private final int[] population = new int[MARKER + 1];
+    private long hash;
+
+    public Board(int width, int height, int colorCount) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Board must be at least 1x1: " + width + "x" + height);
+        }
+        if (colorCount < 1 || colorCount > MAX_COLORS) {
+            throw new IllegalArgumentException("Color count must be in 1.." + MAX_COLORS + ": " + colorCount);
+        }
+        this.width = width;
+        this.height = height;
+        this.colorCount = colorCount;
+        this.colors = new byte[width * height];
+        this.boosters = new byte[width * height];
+        this.dirty = new DirtyRegion(width, height);
+        for (int color = 0; color <= MARKER; color++) {
+            colorCells[color] = new CellMask(width * height);
+        }
+        for (int cell = 0; cell < colors.length; cell++) {
+            colorCells[EMPTY].add(cell);
+        }
+        population[EMPTY] = colors.length;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getSize() { return colors.length; }
+    public int getColorCount() { return colorCount; }
+
+    public int index(int row, int col) { return row * width + col; }
+    public int rowOf(int cell) { return cell / width; }
+    public int colOf(int cell) { return cell % width; }
+
+    // Zobrist hash of the current content, kept up to date by every write
+    public long getHash() { return hash; }
+
+    // Number of cells holding the color code, EMPTY and MARKER included
+    public int getPopulation(byte color) { return population[color]; }
+
+    // Cells holding the color code, kept current by every write; read it, never modify it
+    public CellMask getColorCells(byte color) { return colorCells[color]; }
+
+    // Cells changed since the engine last looked for matches
+    public DirtyRegion getDirtyRegion() { return dirty; }
+
+    public byte getColor(int cell) { return colors[cell]; }
+
+    // Backing color array for bulk kernels in this package; read it, never write it
+    byte[] colors() {
+        return colors;
+    }
+
+    public byte getBooster(int cell) { return boosters[cell]; }
+    public boolean isEmpty(int cell) { return colors[cell] == EMPTY; }
+
+    public void set(int cell, byte color, byte booster) {
+        hash ^= Zobrist.key(cell, colors[cell], boosters[cell]) ^ Zobrist.key(cell, color, booster);
+        byte old = colors[cell];
+        if (old != color) {
+            colorCells[old].remove(cell);
+            colorCells[color].add(cell);
+            population[old]--;
+            population[color]++;
+        }
+        colors[cell] = color;
+        boosters[cell] = booster;
+        markDirty(cell);
+    }
+
+    public void setColor(int cell, byte color) {
+        set(cell, color, boosters[cell]);
+    }
+
+    public void setBooster(int cell, byte booster) {
+        set(cell, colors[cell], booster);
+    }
+
+    // Empties a cell; boosters are dropped with it
+    public void clear(int cell) {
+        set(cell, EMPTY, Boosters.NONE);
+    }
+
+    // Moves a tile into an empty cell, leaving its old cell empty
+    public void move(int from, int to) {
+        set(to, colors[from], boosters[from]);
+        clear(from);
+    }
+
+    // Exchanges color and booster of two cells
+    public void swap(int a, int b) {
+        byte color = colors[a];
+        byte booster = boosters[a];
+        set(a, colors[b], boosters[b]);
+        set(b, color, booster);
+    }
+
+    public boolean areAdjacent(int a, int b) {
+        int dr = Math.abs(rowOf(a) - rowOf(b));
+        int dc = Math.abs(colOf(a) - colOf(b));
+        return dr + dc == 1;
+    }
+
+    public void copyFrom(Board other) {
+        if (other.width != width || other.height != height) {
+            throw new IllegalArgumentException("Board size mismatch");
+        }
+        System.arraycopy(other.colors, 0, colors, 0, colors.length);
+        System.arraycopy(other.boosters, 0, boosters, 0, boosters.length);
+        hash = other.hash;
+        for (int color = 0; color <= MARKER; color++) {
+            colorCells[color].copyFrom(other.colorCells[color]);
+        }
+        System.arraycopy(other.population, 0, population, 0, population.length);
+        dirty.markAll();
+    }
+
+    // FNV-1a over every color and booster byte; equal boards give equal hashes
+    public long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < colors.length; i++) {
+            hash = (hash ^ colors[i]) * 0x100000001b3L;
+            hash = (hash ^ boosters[i]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private void markDirty(int cell) {
+        dirty.mark(cell / width, cell % width);
+    }
+}
@@ -0,0 +1,101 @@
+package com.springliviu.gemgrid.engine;
+
+// Builds a match-free starting board in one scan-order pass. Each cell draws uniformly from the
+// colors that would not complete a run with the cells already placed around it, so there is never
+// a retry. Optionally it first plants a number of known moves, one per 2x3 block, so the board
+// starts with at least that many productive swaps
+public final class BoardGenerator {
+
+    private final int width;
+    private final int height;
+    private final int[] blocks;
+
+    public BoardGenerator(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.blocks = new int[(height / 2) * (width / 3)];
+    }
+
+    // Most moves that can be planted on this board size
+    public int getMaxPlantedMoves() {
+        return blocks.length;
+    }
+
+    // Fills the whole board, boosters removed; needs 3 colors, or 5 when moves are planted, since
+    // a cell between planted tiles can have four colors ruled out
+    public void fill(Board board, GameRandom random, int minMoves) {
+        int colorCount = board.getColorCount();
+        if (colorCount < 3) {
+            throw new IllegalArgumentException("A match-free board needs at least 3 colors: " + colorCount);
+        }
+        if (minMoves > 0 && colorCount < 5) {
+            throw new IllegalArgumentException("Planting moves needs at least 5 colors: " + colorCount);
+        }
+        if (minMoves > blocks.length) {
+            throw new IllegalArgumentException("At most " + blocks.length + " moves fit on a "
+                    + width + "x" + height + " board: " + minMoves);
+        }
+
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            board.clear(cell);
+        }
+        plantMoves(board, random, minMoves);
+
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            if (!board.isEmpty(cell)) continue;
+            int banned = bannedColors(board, cell);
+            int pick = random.nextInt(colorCount - Integer.bitCount(banned));
+            int color = 1;
+            while (true) {
+                if ((banned & (1 << color)) == 0 && pick-- == 0) break;
+                color++;
+            }
+            board.setColor(cell, (byte) color);
+        }
+    }
+
+    // Picks distinct 2x3 blocks with a partial Fisher-Yates shuffle and plants the move
+    // X X .
+    // . . X
+    // in each; the swap of the top-right cell with the one below it always completes the row.
+    // Blocks never touch each other's planted cells, so the planted tiles form no run themselves
+    private void plantMoves(Board board, GameRandom random, int count) {
+        int blocksPerRow = width / 3;
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(blocks.length - i);
+            int block = blocks[j];
+            blocks[j] = blocks[i];
+            blocks[i] = block;
+
+            int row = (block / blocksPerRow) * 2;
+            int col = (block % blocksPerRow) * 3;
+            byte color = Gravity.randomColor(board, random);
+            board.setColor(board.index(row, col), color);
+            board.setColor(board.index(row, col + 1), color);
+            board.setColor(board.index(row + 1, col + 2), color);
+        }
+    }
+
+    // Colors that would complete a run of 3 through the cell with tiles already on the board
+    private int bannedColors(Board board, int cell) {
+        int row = board.rowOf(cell);
+        int col = board.colOf(cell);
+        int banned = 0;
+        banned |= runColor(board, col >= 2, cell - 1, cell - 2);
+        banned |= runColor(board, col + 2 < width, cell + 1, cell + 2);
+        banned |= runColor(board, col >= 1 && col + 1 < width, cell - 1, cell + 1);
+        banned |= runColor(board, row >= 2, cell - width, cell - 2 * width);
+        banned |= runColor(board, row + 2 < height, cell + width, cell + 2 * width);
+        banned |= runColor(board, row >= 1 && row + 1 < height, cell - width, cell + width);
+        return banned & ~(1 << Board.EMPTY);
+    }
+
+    private static int runColor(Board board, boolean inside, int a, int b) {
+        if (!inside) return 0;
+        byte color = board.getColor(a);
+        return color == board.getColor(b) ? 1 << color : 0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Transitive closure of a booster blast: every ROW, COLUMN or COLOR_BOMB caught in it fires in turn,
+// taken from a worklist, until no unfired booster is left. The union is collected in one mask and
+// cleared once, so the view gets a single clear-set. Each row, column and color is blasted at most
+// once and every cell enters the blast once, so the work is linear in the cleared cells; colors are
+// read from the board's own per-color index
+public final class BoosterChain {
+
+    private final int width;
+    private final int height;
+    private final int[] worklist;
+    private final boolean[] rowBlasted;
+    private final boolean[] columnBlasted;
+    private final boolean[] colorBlasted = new boolean[Board.MARKER + 1];
+    private int pending;
+    private Board board;
+    private CellMask blast;
+
+    public BoosterChain(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.worklist = new int[width * height];
+        this.rowBlasted = new boolean[height];
+        this.columnBlasted = new boolean[width];
+    }
+
+    // Starts a chain on the board that collects its cells into 'blast', which is cleared first
+    public void begin(Board board, CellMask blast) {
+        if (board.getWidth() != width || board.getHeight() != height) {
+            throw new IllegalArgumentException("Board size mismatch");
+        }
+        this.board = board;
+        this.blast = blast;
+        blast.clear();
+        Arrays.fill(rowBlasted, false);
+        Arrays.fill(columnBlasted, false);
+        Arrays.fill(colorBlasted, false);
+        pending = 0;
+    }
+
+    // Puts a booster cell in the blast without firing it, e.g. a swapped booster whose combo replaces
+    // its own effect
+    public void consume(int cell) {
+        blast.add(cell);
+    }
+
+    // Adds a cell to the blast; a booster in it fires during resolve()
+    public void add(int cell) {
+        if (blast.contains(cell)) return;
+        blast.add(cell);
+        if (board.getBooster(cell) != Boosters.NONE) {
+            worklist[pending++] = cell;
+        }
+    }
+
+    public void addRow(int row) {
+        if (rowBlasted[row]) return;
+        rowBlasted[row] = true;
+        int start = board.index(row, 0);
+        for (int col = 0; col < width; col++) {
+            add(start + col);
+        }
+    }
+
+    public void addColumn(int col) {
+        if (columnBlasted[col]) return;
+        columnBlasted[col] = true;
+        for (int row = 0; row < height; row++) {
+            add(board.index(row, col));
+        }
+    }
+
+    public void addColor(byte color) {
+        if (colorBlasted[color]) return;
+        colorBlasted[color] = true;
+        CellMask cells = board.getColorCells(color);
+        for (int cell = cells.nextCell(0); cell >= 0; cell = cells.nextCell(cell + 1)) {
+            add(cell);
+        }
+    }
+
+    // Adds the blast of a booster of the given type at the cell
+    public void fire(int cell, byte booster) {
+        switch (booster) {
+            case Boosters.ROW:
+                addRow(board.rowOf(cell));
+                break;
+            case Boosters.COLUMN:
+                addColumn(board.colOf(cell));
+                break;
+            case Boosters.COLOR_BOMB:
+                byte target = nextTargetColor();
+                if (target != Board.EMPTY) addColor(target);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Fires every booster in the blast, including those its blasts catch, then empties the union;
+    // returns how many cells it covered
+    public int resolve() {
+        while (pending > 0) {
+            int cell = worklist[--pending];
+            fire(cell, board.getBooster(cell));
+        }
+
+        int count = 0;
+        for (int cell = blast.nextCell(0); cell >= 0; cell = blast.nextCell(cell + 1)) {
+            board.clear(cell);
+            count++;
+        }
+        return count;
+    }
+
+    // A color bomb that is not swapped with a tile takes the color of the first plain tile, in scan
+    // order, that the chain has not reached yet: the color whose first cell outside the blast comes
+    // earliest, read from the board's per-color masks instead of scanning the board
+    private byte nextTargetColor() {
+        byte target = Board.EMPTY;
+        int first = Integer.MAX_VALUE;
+        for (byte color = 1; color <= board.getColorCount(); color++) {
+            int cell = board.getColorCells(color).nextCellNotIn(blast, 0);
+            if (cell >= 0 && cell < first) {
+                target = color;
+                first = cell;
+            }
+        }
+        return target;
+    }
+}
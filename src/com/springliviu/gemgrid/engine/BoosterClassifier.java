@@ -0,0 +1,218 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Groups matched cells into same-colored clusters and decides booster spawns;
+// same placement rules as TileUtils.classifyMatchesAndBoosters.
+// All clusters are labeled in one iterative flood-fill pass, and each cluster's streaks are then
+// scanned inside its own bounding box only, so the cost is O(matched cells + bounding boxes)
+public final class BoosterClassifier {
+
+    private static final int UNLABELED = -1;
+
+    private final Board board;
+    private final int[] labels;     // cluster id per cell, UNLABELED outside the current matched set
+    private final int[] stack;
+
+    // Per-cluster results of the last classify call
+    private final int[] firstCell;
+    private final int[] clusterSize;
+    private final int[] minRow;
+    private final int[] maxRow;
+    private final int[] minCol;
+    private final int[] maxCol;
+    private final int[] longestRow;
+    private final int[] longestColumn;
+    private final ClusterShape[] shapes;
+    private int clusterCount;
+
+    // Longest runs of the cluster being scanned, for shape detection
+    private int runRow;
+    private int runRowStart;
+    private int runCol;
+    private int runColStart;
+
+    public BoosterClassifier(Board board) {
+        int size = board.getSize();
+        this.board = board;
+        this.labels = new int[size];
+        this.stack = new int[size];
+        Arrays.fill(labels, UNLABELED);
+
+        // Every cluster holds at least 3 cells, since each matched cell sits in a run of 3
+        int capacity = size / 3 + 1;
+        this.firstCell = new int[capacity];
+        this.clusterSize = new int[capacity];
+        this.minRow = new int[capacity];
+        this.maxRow = new int[capacity];
+        this.minCol = new int[capacity];
+        this.maxCol = new int[capacity];
+        this.longestRow = new int[capacity];
+        this.longestColumn = new int[capacity];
+        this.shapes = new ClusterShape[capacity];
+    }
+
+    public int getClusterCount() { return clusterCount; }
+    public int getClusterSize(int cluster) { return clusterSize[cluster]; }
+    public int getLongestRow(int cluster) { return longestRow[cluster]; }
+    public int getLongestColumn(int cluster) { return longestColumn[cluster]; }
+    public ClusterShape getShape(int cluster) { return shapes[cluster]; }
+
+    public void classify(CellMask matched, BoosterSpawns out) {
+        out.clear();
+        labelClusters(matched);
+
+        for (int id = 0; id < clusterCount; id++) {
+            if (clusterSize[id] < 3) {
+                longestRow[id] = 0;
+                longestColumn[id] = 0;
+                shapes[id] = ClusterShape.OTHER;
+                continue;
+            }
+            classifyCluster(id, out);
+        }
+
+        // Leave labels clean for the next call; only matched cells were labeled
+        for (int cell = matched.nextCell(0); cell >= 0; cell = matched.nextCell(cell + 1)) {
+            labels[cell] = UNLABELED;
+        }
+    }
+
+    // Labels every same-colored connected group of matched cells, recording size and bounding box
+    private void labelClusters(CellMask matched) {
+        clusterCount = 0;
+        int width = board.getWidth();
+        int size = board.getSize();
+
+        for (int start = matched.nextCell(0); start >= 0; start = matched.nextCell(start + 1)) {
+            if (labels[start] != UNLABELED) continue;
+
+            int id = clusterCount++;
+            byte color = board.getColor(start);
+            firstCell[id] = start;
+            clusterSize[id] = 0;
+            minRow[id] = maxRow[id] = board.rowOf(start);
+            minCol[id] = maxCol[id] = board.colOf(start);
+
+            int top = 0;
+            stack[top++] = start;
+            labels[start] = id;
+            while (top > 0) {
+                int cell = stack[--top];
+                int row = board.rowOf(cell);
+                int col = board.colOf(cell);
+                clusterSize[id]++;
+                if (row < minRow[id]) minRow[id] = row;
+                if (row > maxRow[id]) maxRow[id] = row;
+                if (col < minCol[id]) minCol[id] = col;
+                if (col > maxCol[id]) maxCol[id] = col;
+
+                if (row > 0) top = push(cell - width, id, color, matched, top);
+                if (cell + width < size) top = push(cell + width, id, color, matched, top);
+                if (col > 0) top = push(cell - 1, id, color, matched, top);
+                if (col < width - 1) top = push(cell + 1, id, color, matched, top);
+            }
+        }
+    }
+
+    private int push(int cell, int id, byte color, CellMask matched, int top) {
+        if (labels[cell] != UNLABELED || !matched.contains(cell) || board.getColor(cell) != color) {
+            return top;
+        }
+        labels[cell] = id;
+        stack[top] = cell;
+        return top + 1;
+    }
+
+    // Streak rules of the original whole-grid scan, restricted to the bounding box. A streak that
+    // ends at the box edge is followed by a non-member cell (or the board edge), so targets match
+    private void classifyCluster(int id, BoosterSpawns out) {
+        int target = -1;
+        byte type = Boosters.NONE;
+        int colEnd = maxCol[id] + 1;
+        int rowEnd = maxRow[id] + 1;
+        longestRow[id] = 0;
+        longestColumn[id] = 0;
+
+        // Horizontal streak check; a later streak overrides an earlier one
+        for (int row = minRow[id]; row < rowEnd; row++) {
+            int streak = 0;
+            for (int col = minCol[id]; col <= colEnd; col++) {
+                if (col < colEnd && labels[board.index(row, col)] == id) {
+                    streak++;
+                    continue;
+                }
+                if (streak > longestRow[id]) {
+                    longestRow[id] = streak;
+                    runRow = row;
+                    runRowStart = col - streak;
+                }
+                if (streak == 4) {
+                    target = board.index(row, col - 2);
+                    type = Boosters.ROW;
+                } else if (streak >= 5) {
+                    target = board.index(row, col - streak / 2);
+                    type = Boosters.COLOR_BOMB;
+                }
+                streak = 0;
+            }
+        }
+
+        // Vertical streak check; only upgrades what the horizontal pass found
+        for (int col = minCol[id]; col < colEnd; col++) {
+            int streak = 0;
+            for (int row = minRow[id]; row <= rowEnd; row++) {
+                if (row < rowEnd && labels[board.index(row, col)] == id) {
+                    streak++;
+                    continue;
+                }
+                if (streak > longestColumn[id]) {
+                    longestColumn[id] = streak;
+                    runCol = col;
+                    runColStart = row - streak;
+                }
+                if (streak == 4 && type == Boosters.NONE) {
+                    target = board.index(row - 2, col);
+                    type = Boosters.COLUMN;
+                } else if (streak >= 5 && type != Boosters.COLOR_BOMB) {
+                    target = board.index(row - streak / 2, col);
+                    type = Boosters.COLOR_BOMB;
+                }
+                streak = 0;
+            }
+        }
+
+        shapes[id] = shapeOf(id);
+
+        // No 4/5 line but cluster >= 5 -> T/L shape; use the cluster's first cell in scan order
+        if (type == Boosters.NONE && clusterSize[id] >= 5) {
+            type = Boosters.COLOR_BOMB;
+            target = firstCell[id];
+        }
+
+        if (type != Boosters.NONE) {
+            out.add(target, type);
+        }
+    }
+
+    private ClusterShape shapeOf(int id) {
+        if (minRow[id] == maxRow[id] || minCol[id] == maxCol[id]) return ClusterShape.LINE;
+
+        int hLength = longestRow[id];
+        int vLength = longestColumn[id];
+        if (hLength < 3 || vLength < 3) return ClusterShape.OTHER;
+
+        // The two longest runs must cross at (runRow, runCol)
+        int alongRow = runCol - runRowStart;
+        int alongColumn = runRow - runColStart;
+        if (alongRow < 0 || alongRow >= hLength || alongColumn < 0 || alongColumn >= vLength) {
+            return ClusterShape.OTHER;
+        }
+
+        boolean rowEnd = alongRow == 0 || alongRow == hLength - 1;
+        boolean columnEnd = alongColumn == 0 || alongColumn == vLength - 1;
+        if (rowEnd && columnEnd) return ClusterShape.L;
+        if (rowEnd || columnEnd) return ClusterShape.T;
+        return ClusterShape.CROSS;
+    }
+}
@@ -0,0 +1,80 @@
+package com.springliviu.gemgrid.engine;
+
+// Booster rules on a Board. Each method empties the affected cells, records them in 'cleared'
+// and returns the points earned. Boosters caught in a blast fire too, through the BoosterChain
+public final class BoosterEffects {
+
+    public static final int POINTS_PER_TILE = 10;
+    public static final int POINTS_PER_SPAWNED_BOOSTER = 5;
+
+    private BoosterEffects() {
+    }
+
+    public static int activateBooster(Board board, int cell, BoosterChain chain, CellMask cleared) {
+        byte booster = board.getBooster(cell);
+        board.clear(cell);
+        chain.begin(board, cleared);
+        chain.fire(cell, booster);
+        return chain.resolve() * POINTS_PER_TILE;
+    }
+
+    // Cross explosion centered on 'center'; the two swapped line boosters make the cross together,
+    // so neither fires its own line
+    public static int triggerLineBoosterCombo(Board board, int center, int other, BoosterChain chain,
+                                              CellMask cleared) {
+        chain.begin(board, cleared);
+        chain.consume(center);
+        chain.consume(other);
+        chain.addRow(board.rowOf(center));
+        chain.addColumn(board.colOf(center));
+        return chain.resolve() * POINTS_PER_TILE;
+    }
+
+    public static int triggerColorBombCombo(Board board, int a, int b, GameRandom random, BoosterChain chain,
+                                            CellMask cleared) {
+        int bomb = (board.getBooster(a) == Boosters.COLOR_BOMB) ? a : b;
+        int target = (bomb == a) ? b : a;
+        cleared.clear();
+
+        if (board.getBooster(a) == Boosters.COLOR_BOMB && board.getBooster(b) == Boosters.COLOR_BOMB) {
+            for (int i = 0; i < board.getSize(); i++) {
+                if (!board.isEmpty(i)) cleared.add(i);
+            }
+            return clearAll(board, cleared) * POINTS_PER_TILE;
+        }
+
+        if (Boosters.isLine(board.getBooster(target))) {
+            int count = 5 + random.nextInt(11);
+            for (int i = 0; i < count; i++) {
+                int r = random.nextInt(board.getHeight());
+                int c = random.nextInt(board.getWidth());
+                byte booster = random.nextBoolean() ? Boosters.ROW : Boosters.COLUMN;
+                board.set(board.index(r, c), Board.MARKER, booster);
+            }
+            board.clear(bomb);
+            board.clear(target);
+            return count * POINTS_PER_SPAWNED_BOOSTER;
+        }
+
+        if (!board.isEmpty(target)) {
+            // Booster tiles carry the marker color, so a color blast never catches one
+            chain.begin(board, cleared);
+            chain.addColor(board.getColor(target));
+            int points = chain.resolve() * POINTS_PER_TILE;
+            board.clear(bomb);
+            return points;
+        }
+
+        return 0;
+    }
+
+    // Empties every cell in the mask and returns how many cells it covered
+    private static int clearAll(Board board, CellMask cells) {
+        int count = 0;
+        for (int cell = cells.nextCell(0); cell >= 0; cell = cells.nextCell(cell + 1)) {
+            board.clear(cell);
+            count++;
+        }
+        return count;
+    }
+}
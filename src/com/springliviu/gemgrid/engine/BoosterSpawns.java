@@ -0,0 +1,41 @@
+package com.springliviu.gemgrid.engine;
+
+// Reusable list of (cell, booster) pairs produced by match classification
+public final class BoosterSpawns {
+
+    private final int[] cells;
+    private final byte[] types;
+    private final CellMask occupied;
+    private int size;
+
+    public BoosterSpawns(int boardSize) {
+        // Every spawn needs a cluster of at least 3 cells
+        int capacity = boardSize / 3 + 1;
+        this.cells = new int[capacity];
+        this.types = new byte[capacity];
+        this.occupied = new CellMask(boardSize);
+    }
+
+    public int size() { return size; }
+    public int getCell(int i) { return cells[i]; }
+    public byte getType(int i) { return types[i]; }
+    public boolean contains(int cell) { return occupied.contains(cell); }
+    public CellMask getCells() { return occupied; }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            occupied.remove(cells[i]);
+        }
+        size = 0;
+    }
+
+    // Ignores a second booster for a cell that already has one, like the original map-based version
+    public boolean add(int cell, byte type) {
+        if (occupied.contains(cell)) return false;
+        cells[size] = cell;
+        types[size] = type;
+        size++;
+        occupied.add(cell);
+        return true;
+    }
+}
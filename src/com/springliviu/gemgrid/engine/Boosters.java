@@ -0,0 +1,29 @@
+package com.springliviu.gemgrid.engine;
+
+import com.springliviu.gemgrid.BoosterType;
+
+// Byte codes for booster types; each code equals the BoosterType ordinal
+public final class Boosters {
+
+    public static final byte NONE = 0;
+    public static final byte ROW = 1;
+    public static final byte COLUMN = 2;
+    public static final byte COLOR_BOMB = 3;
+
+    private static final BoosterType[] TYPES = BoosterType.values();
+
+    private Boosters() {
+    }
+
+    public static BoosterType toType(byte code) {
+        return TYPES[code];
+    }
+
+    public static byte toCode(BoosterType type) {
+        return (byte) type.ordinal();
+    }
+
+    public static boolean isLine(byte code) {
+        return code == ROW || code == COLUMN;
+    }
+}
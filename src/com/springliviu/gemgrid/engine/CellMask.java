@@ -0,0 +1,122 @@
+package com.springliviu.gemgrid.engine;
+
+// Fixed-capacity bit set over board cells; reused between passes so hot paths never allocate
+public final class CellMask {
+
+    private final long[] words;
+    private final int capacity;
+
+    public CellMask(int capacity) {
+        this.capacity = capacity;
+        this.words = new long[(capacity + 63) >>> 6];
+    }
+
+    public int getCapacity() { return capacity; }
+    public int getWordCount() { return words.length; }
+
+    // Raw 64-cell word; for boards of up to 64 cells word 0 is the whole mask
+    public long getWord(int index) { return words[index]; }
+
+    public void setWord(int index, long word) {
+        words[index] = word;
+    }
+
+    // Backing words for bulk kernels in this package
+    long[] words() {
+        return words;
+    }
+
+    public void add(int cell) {
+        words[cell >>> 6] |= 1L << cell;
+    }
+
+    // ORs up to 64 consecutive cells starting at 'from'; bit i of 'bits' is cell from + i
+    public void addBits(int from, long bits) {
+        int index = from >>> 6;
+        int offset = from & 63;
+        words[index] |= bits << offset;
+        if (offset != 0 && index + 1 < words.length) {
+            words[index + 1] |= bits >>> (64 - offset);
+        }
+    }
+
+    public void remove(int cell) {
+        words[cell >>> 6] &= ~(1L << cell);
+    }
+
+    public boolean contains(int cell) {
+        return (words[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    public int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // Returns the first cell at or after 'from', or -1 when there is none
+    public int nextCell(int from) {
+        if (from >= capacity) return -1;
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) return -1;
+            word = words[index];
+        }
+    }
+
+    // First cell at or after 'from' that is in this mask but not in 'other', or -1 when there is none
+    public int nextCellNotIn(CellMask other, int from) {
+        if (from >= capacity) return -1;
+        int index = from >>> 6;
+        long word = words[index] & ~other.words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) return -1;
+            word = words[index] & ~other.words[index];
+        }
+    }
+
+    public void copyFrom(CellMask other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    public void or(CellMask other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public void andNot(CellMask other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    public boolean sameCells(CellMask other) {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != other.words[i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.springliviu.gemgrid.engine;
+
+// Shape of a matched cluster, judged from its longest horizontal and vertical runs
+public enum ClusterShape {
+    LINE,    // A single straight run
+    L,       // Two runs meeting at an end of both
+    T,       // One run ending in the middle of the other
+    CROSS,   // Two runs crossing in the middle of both (+)
+    OTHER    // Anything else, e.g. parallel runs joined side by side
+}
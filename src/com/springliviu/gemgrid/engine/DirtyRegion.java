@@ -0,0 +1,104 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Rows and columns changed since the last match pass, each with the span of cells that changed in it.
+// Marking and resetting cost O(1) per touched cell, row or column, never O(board)
+public final class DirtyRegion {
+
+    private final int width;
+    private final int height;
+    private final int[] rowStart;   // first dirty column per row, or width when the row is clean
+    private final int[] rowEnd;
+    private final int[] colStart;   // first dirty row per column, or height when the column is clean
+    private final int[] colEnd;
+    private final int[] rows;
+    private final int[] cols;
+    private int rowCount;
+    private int colCount;
+
+    public DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rowStart = new int[height];
+        this.rowEnd = new int[height];
+        this.colStart = new int[width];
+        this.colEnd = new int[width];
+        this.rows = new int[height];
+        this.cols = new int[width];
+        Arrays.fill(rowStart, width);
+        Arrays.fill(colStart, height);
+    }
+
+    public boolean isClean() { return rowCount == 0; }
+    public int getRowCount() { return rowCount; }
+    public int getColumnCount() { return colCount; }
+
+    // i-th dirty row, in the order rows were first touched
+    public int getRow(int i) { return rows[i]; }
+    public int getRowStart(int row) { return rowStart[row]; }
+    public int getRowEnd(int row) { return rowEnd[row]; }
+
+    public int getColumn(int i) { return cols[i]; }
+    public int getColumnStart(int col) { return colStart[col]; }
+    public int getColumnEnd(int col) { return colEnd[col]; }
+
+    public void mark(int row, int col) {
+        if (rowStart[row] == width) {
+            rows[rowCount++] = row;
+            rowStart[row] = col;
+            rowEnd[row] = col;
+        } else if (col < rowStart[row]) {
+            rowStart[row] = col;
+        } else if (col > rowEnd[row]) {
+            rowEnd[row] = col;
+        }
+
+        if (colStart[col] == height) {
+            cols[colCount++] = col;
+            colStart[col] = row;
+            colEnd[col] = row;
+        } else if (row < colStart[col]) {
+            colStart[col] = row;
+        } else if (row > colEnd[col]) {
+            colEnd[col] = row;
+        }
+    }
+
+    public void markAll() {
+        reset();
+        for (int row = 0; row < height; row++) {
+            rows[rowCount++] = row;
+            rowStart[row] = 0;
+            rowEnd[row] = width - 1;
+        }
+        for (int col = 0; col < width; col++) {
+            cols[colCount++] = col;
+            colStart[col] = 0;
+            colEnd[col] = height - 1;
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < rowCount; i++) {
+            rowStart[rows[i]] = width;
+        }
+        for (int i = 0; i < colCount; i++) {
+            colStart[cols[i]] = height;
+        }
+        rowCount = 0;
+        colCount = 0;
+    }
+
+    // Number of cells a rescan of the dirty spans would visit
+    public int getArea() {
+        int area = 0;
+        for (int i = 0; i < rowCount; i++) {
+            area += rowEnd[rows[i]] - rowStart[rows[i]] + 1;
+        }
+        for (int i = 0; i < colCount; i++) {
+            area += colEnd[cols[i]] - colStart[cols[i]] + 1;
+        }
+        return area;
+    }
+}
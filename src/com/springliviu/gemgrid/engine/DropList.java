@@ -0,0 +1,30 @@
+package com.springliviu.gemgrid.engine;
+
+// Reusable record of the tile moves made by one gravity pass, for the view to animate
+public final class DropList {
+
+    public static final int SPAWNED = -1;  // fromRow of a refill tile entering from above the board
+
+    private final int[] fromRows;
+    private final int[] targets;
+    private int size;
+
+    public DropList(int boardSize) {
+        this.fromRows = new int[boardSize];
+        this.targets = new int[boardSize];
+    }
+
+    public int size() { return size; }
+    public int getFromRow(int i) { return fromRows[i]; }
+    public int getTarget(int i) { return targets[i]; }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int fromRow, int target) {
+        fromRows[size] = fromRow;
+        targets[size] = target;
+        size++;
+    }
+}
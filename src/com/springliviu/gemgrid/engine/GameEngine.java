@@ -0,0 +1,380 @@
+package com.springliviu.gemgrid.engine;
+
+import com.springliviu.gemgrid.events.BoosterEvent;
+import com.springliviu.gemgrid.events.ClassifyEvent;
+import com.springliviu.gemgrid.events.GravityEvent;
+import com.springliviu.gemgrid.events.MatchEvent;
+import jdk.jfr.EventType;
+
+import java.util.Arrays;
+
+// Headless game rules: swaps, booster effects, match resolution and gravity on a Board.
+// All per-move work reuses buffers owned by the engine, so nothing is allocated after construction
+public final class GameEngine {
+
+    // Events are only created while a recording has their type enabled, so play without JFR allocates none
+    private static final EventType BOOSTER_EVENTS = EventType.getEventType(BoosterEvent.class);
+    private static final EventType GRAVITY_EVENTS = EventType.getEventType(GravityEvent.class);
+    private static final EventType MATCH_EVENTS = EventType.getEventType(MatchEvent.class);
+    private static final EventType CLASSIFY_EVENTS = EventType.getEventType(ClassifyEvent.class);
+
+    private final Board board;
+    private final GameRandom random;
+    private final MatchDetector matchDetector;
+    private final CellMask matched;
+    private final CellMask cleared;
+    private final BoosterSpawns spawns;
+    private final DropList drops;
+    private final Gravity gravity;
+    private final BoosterClassifier classifier;
+    private final MoveGenerator moves;
+    private final Shuffler shuffler;
+    private final BoardGenerator generator;
+    private final BoosterChain chain;
+    private final int[] spawnedBoosters = new int[Boosters.COLOR_BOMB + 1];
+    private TurnScript script;
+    private int score;
+    private int shuffles;
+    private int cascadeDepth;
+    private int turnCleared;
+    private int minMoves;
+    private int lastFirst = -1;
+    private int lastSecond = -1;
+
+    public GameEngine(Board board, GameRandom random) {
+        this(board, random, new BitboardMatcher(board.getWidth(), board.getHeight()));
+    }
+
+    public GameEngine(Board board, GameRandom random, MatchDetector matchDetector) {
+        this.board = board;
+        this.random = random;
+        this.matchDetector = matchDetector;
+        this.matched = new CellMask(board.getSize());
+        this.cleared = new CellMask(board.getSize());
+        this.spawns = new BoosterSpawns(board.getSize());
+        this.drops = new DropList(board.getSize());
+        this.gravity = new Gravity(board.getWidth(), board.getHeight());
+        this.classifier = new BoosterClassifier(board);
+        this.moves = new MoveGenerator(board.getWidth(), board.getHeight());
+        this.shuffler = new Shuffler(board.getSize());
+        this.generator = new BoardGenerator(board.getWidth(), board.getHeight());
+        this.chain = new BoosterChain(board.getWidth(), board.getHeight());
+    }
+
+    public Board getBoard() { return board; }
+    public int getScore() { return score; }
+    public GameRandom getRandom() { return random; }
+
+    // Boosters of the given type created by matches since the game started
+    public int getSpawnedBoosters(byte type) { return spawnedBoosters[type]; }
+
+    // Dead boards met since the game started, each one shuffled or, if the shuffler failed, left dead
+    public int getShuffles() { return shuffles; }
+
+    // Match passes made by the last settle call
+    public int getCascadeDepth() { return cascadeDepth; }
+
+    // Cells cleared by the last play call, over the swap and all cascade passes
+    public int getTurnCleared() { return turnCleared; }
+
+    // Cells swapped by the last play call, e.g. to see which move a policy made; -1 before the first
+    public int getLastFirst() { return lastFirst; }
+    public int getLastSecond() { return lastSecond; }
+    public MatchDetector getMatchDetector() { return matchDetector; }
+
+    // Cells matched by the last resolveMatches call, boosters included
+    public CellMask getMatched() { return matched; }
+
+    // Cells emptied by the last swap or resolveMatches call
+    public CellMask getCleared() { return cleared; }
+
+    // Boosters placed by the last resolveMatches call
+    public BoosterSpawns getSpawns() { return spawns; }
+
+    // Moves made by the last applyGravity call
+    public DropList getDrops() { return drops; }
+
+    // Gravity kernel of applyGravity, e.g. to let very large boards compact their columns in parallel
+    public Gravity getGravity() { return gravity; }
+
+    // Where each tile came from in the last shuffle
+    public Shuffler getShuffler() { return shuffler; }
+
+    // When set, play() records each turn into the script for a view to play back
+    public TurnScript getScript() { return script; }
+
+    public void setScript(TurnScript script) {
+        this.script = script;
+        if (script != null) script.reset(board);
+    }
+
+    // Reseeds the random source, then starts a new game; the same seed always gives the same game
+    public void newGame(long seed) {
+        random.setState(seed);
+        newGame();
+    }
+
+    // Builds a match-free board in one pass, with at least getMinMoves() productive swaps
+    public void newGame() {
+        score = 0;
+        shuffles = 0;
+        cascadeDepth = 0;
+        Arrays.fill(spawnedBoosters, 0);
+        cleared.clear();
+        spawns.clear();
+        drops.clear();
+        generator.fill(board, random, minMoves);
+        board.getDirtyRegion().reset();
+        shuffleIfStuck();
+        if (script != null) script.reset(board);
+    }
+
+    // Moves planted on every new board; 0 only guarantees one move, via the dead-board shuffle
+    public int getMinMoves() { return minMoves; }
+
+    public void setMinMoves(int minMoves) {
+        if (minMoves < 0 || minMoves > generator.getMaxPlantedMoves()) {
+            throw new IllegalArgumentException("Minimum moves must be in 0.." + generator.getMaxPlantedMoves() + ": " + minMoves);
+        }
+        this.minMoves = minMoves;
+    }
+
+    // Continues a game whose board was just loaded, e.g. from a SaveGame; the booster and shuffle
+    // counts restart
+    public void resume(int score, long randomState) {
+        random.setState(randomState);
+        this.score = score;
+        shuffles = 0;
+        cascadeDepth = 0;
+        turnCleared = 0;
+        Arrays.fill(spawnedBoosters, 0);
+        cleared.clear();
+        spawns.clear();
+        drops.clear();
+        board.getDirtyRegion().reset();
+        if (script != null) script.reset(board);
+    }
+
+    // Takes over another engine's board, score and random state, e.g. to try a move on a scratch copy
+    public void copyFrom(GameEngine other) {
+        board.copyFrom(other.board);
+        random.setState(other.random.getState());
+        score = other.score;
+        shuffles = other.shuffles;
+        cascadeDepth = other.cascadeDepth;
+        System.arraycopy(other.spawnedBoosters, 0, spawnedBoosters, 0, spawnedBoosters.length);
+        if (script != null) script.reset(board);
+    }
+
+    // Swaps two adjacent cells and fires any boosters involved; a swap that does nothing is reverted
+    public SwapResult swap(int a, int b) {
+        byte boosterA = board.getBooster(a);
+        byte boosterB = board.getBooster(b);
+        cleared.clear();
+        spawns.clear();
+
+        // Always swap before processing boosters
+        board.swap(a, b);
+
+        if (boosterA != Boosters.NONE || boosterB != Boosters.NONE) {
+            if (!BOOSTER_EVENTS.isEnabled()) return fireBoosters(a, b, boosterA, boosterB);
+            BoosterEvent event = new BoosterEvent();
+            event.begin();
+            SwapResult result = fireBoosters(a, b, boosterA, boosterB);
+            event.end();
+            if (event.shouldCommit()) {
+                event.width = board.getWidth();
+                event.height = board.getHeight();
+                event.result = result.name();
+                event.cellsCleared = cleared.count();
+                event.commit();
+            }
+            return result;
+        }
+
+        if (MatchFinder.isMatch(board, board.rowOf(a), board.colOf(a)) ||
+                MatchFinder.isMatch(board, board.rowOf(b), board.colOf(b))) {
+            return SwapResult.MATCH;
+        }
+
+        board.swap(a, b);
+        return SwapResult.REJECTED;
+    }
+
+    // Boosters now sit in the swapped cells
+    private SwapResult fireBoosters(int a, int b, byte boosterA, byte boosterB) {
+        // COLOR_BOMB + COLOR_BOMB or COLOR_BOMB + other booster or tile
+        if (boosterA == Boosters.COLOR_BOMB || boosterB == Boosters.COLOR_BOMB) {
+            score += BoosterEffects.triggerColorBombCombo(board, a, b, random, chain, cleared);
+            return SwapResult.COLOR_BOMB_COMBO;
+        }
+
+        // ROW/COLUMN + ROW/COLUMN -> cross explosion centered on the destination cell
+        if (Boosters.isLine(boosterA) && Boosters.isLine(boosterB)) {
+            score += BoosterEffects.triggerLineBoosterCombo(board, b, a, chain, cleared);
+            return SwapResult.LINE_COMBO;
+        }
+
+        // One booster only; it now sits in the other cell
+        int triggered = (boosterA != Boosters.NONE) ? b : a;
+        score += BoosterEffects.activateBooster(board, triggered, chain, cleared);
+        return SwapResult.BOOSTER;
+    }
+
+    // Every productive swap on the current board; the generator is reused, so read it before the next call
+    public MoveGenerator findMoves() {
+        moves.generate(board);
+        return moves;
+    }
+
+    // Would swap(a, b) be accepted? Boosters always fire; plain tiles need a match. Board is untouched
+    public boolean isProductive(int a, int b) {
+        if (board.getBooster(a) != Boosters.NONE || board.getBooster(b) != Boosters.NONE) return true;
+        return MatchFinder.isSwapMatch(board, a, b);
+    }
+
+    // A whole turn at once: the swap, then gravity and match passes until the board is stable.
+    // With a script set, every step is recorded, so a view animates the turn after it is resolved
+    public SwapResult play(int a, int b) {
+        if (script != null) script.clear();
+        turnCleared = 0;
+        lastFirst = a;
+        lastSecond = b;
+        SwapResult result = swap(a, b);
+        if (result != SwapResult.REJECTED) {
+            recordClear();
+            settle();
+        } else {
+            cascadeDepth = 0;
+        }
+        return result;
+    }
+
+    // Runs gravity and match passes until nothing matches, then shuffles a board left without moves;
+    // returns the number of match passes
+    public int settle() {
+        cascadeDepth = 0;
+        while (true) {
+            applyGravity();
+            if (script != null) script.recordDrops(board, drops, score);
+            if (!resolveMatches()) break;
+            recordClear();
+            cascadeDepth++;
+        }
+        if (shuffleIfStuck() && script != null) {
+            script.recordShuffle(board, shuffler, score);
+        }
+        return cascadeDepth;
+    }
+
+    // Shuffles a settled board that has no productive swap. Returns true if it shuffled; the board
+    // then has a move and no match. A board the shuffler cannot fix is left alone and stays dead
+    public boolean shuffleIfStuck() {
+        if (findMoves().getMoveCount() > 0) return false;
+        shuffles++;
+        boolean shuffled = shuffler.shuffle(board, random);
+        board.getDirtyRegion().reset();
+        return shuffled;
+    }
+
+    // Counts the cleared cells; in the script, tiles changed by the swap or new boosters show at
+    // once and cleared tiles then fade
+    private void recordClear() {
+        turnCleared += cleared.count();
+        if (script == null) return;
+        script.recordShow(board, cleared, score);
+        script.recordFade(cleared, score);
+    }
+
+    // Drops tiles into empty cells and refills the top of each column
+    public void applyGravity() {
+        if (!GRAVITY_EVENTS.isEnabled()) {
+            gravity.apply(board, random, drops);
+            return;
+        }
+        GravityEvent event = new GravityEvent();
+        event.begin();
+        gravity.apply(board, random, drops);
+        event.end();
+        if (event.shouldCommit()) {
+            event.width = board.getWidth();
+            event.height = board.getHeight();
+            event.tilesMoved = drops.size();
+            event.cascadeDepth = cascadeDepth;
+            event.commit();
+        }
+    }
+
+    // Clears every current match, placing boosters for 4/5-lines and T/L shapes.
+    // Returns false when the board has no match, i.e. the cascade has settled
+    public boolean resolveMatches() {
+        cleared.clear();
+        if (!findMatches()) {
+            spawns.clear();
+            return false;
+        }
+
+        ClassifyEvent event = CLASSIFY_EVENTS.isEnabled() ? new ClassifyEvent() : null;
+        if (event != null) event.begin();
+        classifier.classify(matched, spawns);
+        if (event != null) event.end();
+
+        // Booster cells stay on the board with the neutral marker color
+        for (int i = 0; i < spawns.size(); i++) {
+            board.set(spawns.getCell(i), Board.MARKER, spawns.getType(i));
+            spawnedBoosters[spawns.getType(i)]++;
+        }
+
+        cleared.copyFrom(matched);
+        cleared.andNot(spawns.getCells());
+        int count = 0;
+        for (int cell = cleared.nextCell(0); cell >= 0; cell = cleared.nextCell(cell + 1)) {
+            board.clear(cell);
+            count++;
+        }
+        score += count * BoosterEffects.POINTS_PER_TILE;
+
+        if (event != null && event.shouldCommit()) {
+            event.width = board.getWidth();
+            event.height = board.getHeight();
+            event.cellsCleared = count;
+            event.boostersSpawned = spawns.size();
+            event.cascadeDepth = cascadeDepth;
+            event.commit();
+        }
+        return true;
+    }
+
+    // Only cells changed since the last pass can be part of a new match, so small changes are
+    // rescanned locally; once the dirty spans cover a quarter of the board a full scan is cheaper
+    private boolean findMatches() {
+        DirtyRegion dirty = board.getDirtyRegion();
+        MatchEvent event = MATCH_EVENTS.isEnabled() ? new MatchEvent() : null;
+        if (event != null) event.begin();
+        boolean found;
+        boolean fullScan = false;
+        if (dirty.isClean()) {
+            matched.clear();
+            found = false;
+        } else if (dirty.getArea() * 4 < board.getSize()) {
+            found = MatchFinder.findMatchesIn(board, dirty, matched);
+        } else {
+            found = matchDetector.findMatches(board, matched);
+            fullScan = true;
+        }
+        dirty.reset();
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.width = board.getWidth();
+                event.height = board.getHeight();
+                event.fullScan = fullScan;
+                event.cellsMatched = found ? matched.count() : 0;
+                event.cascadeDepth = cascadeDepth;
+                event.commit();
+            }
+        }
+        return found;
+    }
+}
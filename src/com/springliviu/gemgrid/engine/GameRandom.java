@@ -0,0 +1,41 @@
+package com.springliviu.gemgrid.engine;
+
+// Seedable, splittable random source (SplitMix64). The whole state is one long, so a game can be
+// replayed from its seed, and split() hands independent streams to worker threads
+public final class GameRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public long getState() { return state; }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Uniform in [0, bound); multiply-shift on the high 32 bits, bias below 2^-32 * bound
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    // New generator seeded from this one; the two streams do not overlap in practice
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+}
@@ -0,0 +1,154 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Column compaction with random refill; draws the same refill colors as GridManipulator used to.
+// Only columns holding an empty cell are touched, each from its lowest empty cell up, and those cells
+// are found from the board's EMPTY mask, so a pass costs the cells that change instead of the whole
+// board. The columns are compacted together, sweeping rows bottom up, so the row-major board is read
+// and written in order instead of one column at a time. The new content goes to a packed scratch copy
+// (color | booster << 4) first, and every changed cell is then written to the board once.
+// Refill colors are drawn in one bulk pass, column by column and bottom up as before, so the columns
+// are independent: with setParallel(true), passes touching at least PARALLEL_MIN_CELLS cells compact
+// bands of BAND_WIDTH columns in parallel. The results are always written on the calling thread, so
+// parallel and serial passes leave the same board, drops and random state
+public final class Gravity {
+
+    public static final int PARALLEL_MIN_CELLS = 1 << 16;
+    public static final int BAND_WIDTH = 64;
+
+    private final int width;
+    private final int height;
+    private final int[] lowest;        // Lowest empty row of each column, -1 when it has none
+    private final int[] refillStart;   // First refill color of each column in the stream
+    private final int[] write;         // Next row to fill in each column while compacting
+    private final byte[] stream;       // Refill colors of the pass, in draw order
+    private final byte[] packed;       // New content of each touched cell
+    private final int[] from;          // Row each touched cell's content came from, or DropList.SPAWNED
+    private boolean parallel;
+    private int firstCol;
+    private int lastCol;
+    private int top;
+
+    public Gravity(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.lowest = new int[width];
+        this.refillStart = new int[width];
+        this.write = new int[width];
+        this.stream = new byte[width * height];
+        this.packed = new byte[width * height];
+        this.from = new int[width * height];
+    }
+
+    public boolean isParallel() { return parallel; }
+
+    // Parallel passes run on the common fork-join pool and allocate their tasks, so they are off by default
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public void apply(Board board, GameRandom random, DropList drops) {
+        if (board.getWidth() != width || board.getHeight() != height) {
+            throw new IllegalArgumentException("Board size mismatch");
+        }
+        drops.clear();
+        int refills = board.getPopulation(Board.EMPTY);
+        if (refills == 0) return;
+
+        int work = findEmptyColumns(board);
+        for (int i = 0; i < refills; i++) {
+            stream[i] = randomColor(board, random);
+        }
+
+        if (parallel && work >= PARALLEL_MIN_CELLS) {
+            int bands = (width + BAND_WIDTH - 1) / BAND_WIDTH;
+            IntStream.range(0, bands).parallel().forEach(band ->
+                    compact(board, band * BAND_WIDTH, Math.min(width, (band + 1) * BAND_WIDTH)));
+        } else {
+            compact(board, firstCol, lastCol + 1);
+        }
+        writeBack(board, drops);
+    }
+
+    public static byte randomColor(Board board, GameRandom random) {
+        return (byte) (1 + random.nextInt(board.getColorCount()));
+    }
+
+    // Fills lowest and refillStart from the EMPTY mask; returns how many cells the pass will compact
+    private int findEmptyColumns(Board board) {
+        Arrays.fill(lowest, -1);
+        // Counts the empty cells of each column in place, then turns the counts into stream offsets
+        int[] counts = refillStart;
+        Arrays.fill(counts, 0);
+        CellMask empty = board.getColorCells(Board.EMPTY);
+        for (int cell = empty.nextCell(0); cell >= 0; cell = empty.nextCell(cell + 1)) {
+            int col = board.colOf(cell);
+            lowest[col] = board.rowOf(cell);
+            counts[col]++;
+        }
+
+        int start = 0;
+        int work = 0;
+        firstCol = width;
+        lastCol = -1;
+        top = -1;
+        for (int col = 0; col < width; col++) {
+            int count = counts[col];
+            refillStart[col] = start;
+            start += count;
+            if (count > 0) {
+                firstCol = Math.min(firstCol, col);
+                lastCol = col;
+                top = Math.max(top, lowest[col]);
+                work += lowest[col] + 1;
+            }
+        }
+        return work;
+    }
+
+    // Packs the new content of columns [fromCol, toCol): the tiles keep their order and sink, the
+    // refills take the top, bottom up in stream order. Only reads the board
+    private void compact(Board board, int fromCol, int toCol) {
+        for (int col = fromCol; col < toCol; col++) {
+            write[col] = lowest[col];
+        }
+        for (int row = top; row >= 0; row--) {
+            int rowStart = row * width;
+            for (int col = fromCol; col < toCol; col++) {
+                if (row > lowest[col]) continue;
+                byte color = board.getColor(rowStart + col);
+                if (color != Board.EMPTY) {
+                    int target = write[col]-- * width + col;
+                    packed[target] = (byte) (color | board.getBooster(rowStart + col) << 4);
+                    from[target] = row;
+                }
+            }
+        }
+        for (int row = top; row >= 0; row--) {
+            int rowStart = row * width;
+            for (int col = fromCol; col < toCol; col++) {
+                if (row > write[col]) continue;
+                packed[rowStart + col] = stream[refillStart[col] + write[col] - row];
+                from[rowStart + col] = DropList.SPAWNED;
+            }
+        }
+    }
+
+    // Writes every cell whose content changed, bottom up, and records where it came from
+    private void writeBack(Board board, DropList drops) {
+        for (int row = top; row >= 0; row--) {
+            int rowStart = row * width;
+            for (int col = firstCol; col <= lastCol; col++) {
+                if (row > lowest[col]) continue;
+                int cell = rowStart + col;
+                int source = from[cell];
+                if (source == row) continue;
+                byte symbol = packed[cell];
+                board.set(cell, (byte) (symbol & 0x0F), (byte) (symbol >>> 4));
+                drops.add(source, cell);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.springliviu.gemgrid.engine;
+
+// Finds every cell that belongs to a horizontal or vertical run of 3 or more same-colored tiles.
+// Implementations are interchangeable and must report exactly the cells TileUtils.findMatchedTiles does
+public interface MatchDetector {
+
+    // Clears 'out', fills it with the matched cells and returns true if there were any
+    boolean findMatches(Board board, CellMask out);
+
+    // "scan" walks the board cell by cell; "bitboard" uses per-color bit masks; "vector" compares
+    // colors in SIMD lanes when the JVM runs with --add-modules jdk.incubator.vector, and is the
+    // bitboard matcher otherwise
+    static MatchDetector create(String name, Board board) {
+        switch (name) {
+            case "scan":
+                return MatchFinder::findMatches;
+            case "bitboard":
+                return new BitboardMatcher(board.getWidth(), board.getHeight());
+            case "vector":
+                if (isVectorAvailable()) return createVector(board);
+                return new BitboardMatcher(board.getWidth(), board.getHeight());
+            default:
+                throw new IllegalArgumentException("Unknown match detector: " + name);
+        }
+    }
+
+    // True when the incubating Vector API module is loaded, so VectorMatcher can run
+    static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    // Loaded by name, so a JVM without the module never links the class
+    private static MatchDetector createVector(Board board) {
+        try {
+            return (MatchDetector) Class.forName("com.springliviu.gemgrid.engine.VectorMatcher")
+                    .getConstructor(int.class, int.class)
+                    .newInstance(board.getWidth(), board.getHeight());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Vector matcher unavailable", e);
+        }
+    }
+}
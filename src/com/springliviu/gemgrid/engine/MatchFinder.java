@@ -0,0 +1,173 @@
+package com.springliviu.gemgrid.engine;
+
+// Match detection on a Board; same rules as TileUtils.isMatch and TileUtils.findMatchedTiles
+public final class MatchFinder {
+
+    private MatchFinder() {
+    }
+
+    // Checks if a single cell is part of a horizontal or vertical match of 3 or more
+    public static boolean isMatch(Board board, int row, int col) {
+        byte color = board.getColor(board.index(row, col));
+        if (color == Board.EMPTY) return false;
+
+        int width = board.getWidth();
+        int height = board.getHeight();
+
+        int countH = 1;
+        for (int i = col - 1; i >= 0 && board.getColor(board.index(row, i)) == color; i--) countH++;
+        for (int i = col + 1; i < width && board.getColor(board.index(row, i)) == color; i++) countH++;
+        if (countH >= 3) return true;
+
+        int countV = 1;
+        for (int i = row - 1; i >= 0 && board.getColor(board.index(i, col)) == color; i--) countV++;
+        for (int i = row + 1; i < height && board.getColor(board.index(i, col)) == color; i++) countV++;
+        return countV >= 3;
+    }
+
+    // Would swapping cells a and b put either of them in a run of 3? The board is not modified
+    public static boolean isSwapMatch(Board board, int a, int b) {
+        byte colorA = board.getColor(a);
+        byte colorB = board.getColor(b);
+        if (colorA == colorB) return false;
+        return runsThrough(board, b, colorA, a) || runsThrough(board, a, colorB, b);
+    }
+
+    // Checks for a run of 3 through 'cell' if it held 'color'; 'vacated' is the swap partner,
+    // which after the swap holds the cell's old color and so never extends the run
+    private static boolean runsThrough(Board board, int cell, byte color, int vacated) {
+        if (color == Board.EMPTY) return false;
+        int width = board.getWidth();
+        int row = board.rowOf(cell);
+        int col = board.colOf(cell);
+
+        int countH = 1;
+        for (int i = col - 1; i >= 0 && board.index(row, i) != vacated && board.getColor(board.index(row, i)) == color; i--) countH++;
+        for (int i = col + 1; i < width && board.index(row, i) != vacated && board.getColor(board.index(row, i)) == color; i++) countH++;
+        if (countH >= 3) return true;
+
+        int countV = 1;
+        for (int i = row - 1; i >= 0 && board.index(i, col) != vacated && board.getColor(board.index(i, col)) == color; i--) countV++;
+        for (int i = row + 1; i < board.getHeight() && board.index(i, col) != vacated && board.getColor(board.index(i, col)) == color; i++) countV++;
+        return countV >= 3;
+    }
+
+    // Collects every cell in a horizontal or vertical run of 3 or more into 'out'
+    public static boolean findMatches(Board board, CellMask out) {
+        out.clear();
+        int width = board.getWidth();
+        int height = board.getHeight();
+
+        // Horizontal runs
+        for (int row = 0; row < height; row++) {
+            int start = board.index(row, 0);
+            int col = 0;
+            while (col < width) {
+                byte color = board.getColor(start + col);
+                int end = col + 1;
+                while (end < width && board.getColor(start + end) == color) end++;
+                if (color != Board.EMPTY && end - col >= 3) {
+                    for (int k = col; k < end; k++) out.add(start + k);
+                }
+                col = end;
+            }
+        }
+
+        // Vertical runs
+        for (int col = 0; col < width; col++) {
+            int row = 0;
+            while (row < height) {
+                byte color = board.getColor(board.index(row, col));
+                int end = row + 1;
+                while (end < height && board.getColor(board.index(end, col)) == color) end++;
+                if (color != Board.EMPTY && end - row >= 3) {
+                    for (int k = row; k < end; k++) out.add(board.index(k, col));
+                }
+                row = end;
+            }
+        }
+
+        return !out.isEmpty();
+    }
+
+    // Same result as findMatches, provided every match on the board touches the dirty region.
+    // The engine keeps that true: the board has no match after a pass and every change since is marked
+    public static boolean findMatchesIn(Board board, DirtyRegion dirty, CellMask out) {
+        out.clear();
+        int width = board.getWidth();
+        int height = board.getHeight();
+
+        // Horizontal runs overlapping each dirty row span
+        for (int i = 0; i < dirty.getRowCount(); i++) {
+            int row = dirty.getRow(i);
+            int start = board.index(row, 0);
+            int last = dirty.getRowEnd(row);
+            int col = dirty.getRowStart(row);
+            byte first = board.getColor(start + col);
+            while (col > 0 && board.getColor(start + col - 1) == first) col--;
+
+            while (col <= last) {
+                byte color = board.getColor(start + col);
+                int end = col + 1;
+                while (end < width && board.getColor(start + end) == color) end++;
+                if (color != Board.EMPTY && end - col >= 3) {
+                    for (int k = col; k < end; k++) out.add(start + k);
+                }
+                col = end;
+            }
+        }
+
+        // Vertical runs overlapping each dirty column span
+        for (int i = 0; i < dirty.getColumnCount(); i++) {
+            int col = dirty.getColumn(i);
+            int last = dirty.getColumnEnd(col);
+            int row = dirty.getColumnStart(col);
+            byte first = board.getColor(board.index(row, col));
+            while (row > 0 && board.getColor(board.index(row - 1, col)) == first) row--;
+
+            while (row <= last) {
+                byte color = board.getColor(board.index(row, col));
+                int end = row + 1;
+                while (end < height && board.getColor(board.index(end, col)) == color) end++;
+                if (color != Board.EMPTY && end - row >= 3) {
+                    for (int k = row; k < end; k++) out.add(board.index(k, col));
+                }
+                row = end;
+            }
+        }
+
+        return !out.isEmpty();
+    }
+
+    // Returns true as soon as any run of 3 is found
+    public static boolean hasMatch(Board board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width - 2; col++) {
+                int cell = board.index(row, col);
+                byte color = board.getColor(cell);
+                if (color != Board.EMPTY &&
+                        board.getColor(cell + 1) == color &&
+                        board.getColor(cell + 2) == color) {
+                    return true;
+                }
+            }
+        }
+
+        for (int row = 0; row < height - 2; row++) {
+            for (int col = 0; col < width; col++) {
+                int cell = board.index(row, col);
+                byte color = board.getColor(cell);
+                if (color != Board.EMPTY &&
+                        board.getColor(cell + width) == color &&
+                        board.getColor(cell + 2 * width) == color) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
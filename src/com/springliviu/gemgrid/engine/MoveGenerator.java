@@ -0,0 +1,192 @@
+package com.springliviu.gemgrid.engine;
+
+// Finds every productive swap with whole-board bit masks instead of trying swaps one by one.
+// For each color X and each target cell p, the masks say whether X can arrive at p from a neighbor q
+// and complete a run of 3 through p without using q: from above or below, the two cells left of p,
+// right of p or on both sides; from the left or right, the same vertically. Every swap that touches
+// a booster is productive too. Results are two pair masks: bit a of getRightPairs() means (a, a + 1)
+// is productive, bit a of getDownPairs() means (a, a + width) is
+public final class MoveGenerator {
+
+    private final int width;
+    private final int size;
+    private final int words;
+
+    private final long[] valid;
+    private final long[] notFirstCol;
+    private final long[] notFirstTwoCols;
+    private final long[] notLastCol;
+    private final long[] notLastTwoCols;
+    private final long[] notLastRow;
+
+    // Scratch, reused on every call
+    private final long[] left1;
+    private final long[] left2;
+    private final long[] right1;
+    private final long[] right2;
+    private final long[] up1;
+    private final long[] up2;
+    private final long[] down1;
+    private final long[] down2;
+    private final long[] targets;
+    private final long[] shifted;
+
+    private final CellMask rightPairs;
+    private final CellMask downPairs;
+    private int moveCount;
+
+    public MoveGenerator(int width, int height) {
+        this.width = width;
+        this.size = width * height;
+        this.words = (size + 63) >>> 6;
+        this.valid = new long[words];
+        this.notFirstCol = new long[words];
+        this.notFirstTwoCols = new long[words];
+        this.notLastCol = new long[words];
+        this.notLastTwoCols = new long[words];
+        this.notLastRow = new long[words];
+        this.left1 = new long[words];
+        this.left2 = new long[words];
+        this.right1 = new long[words];
+        this.right2 = new long[words];
+        this.up1 = new long[words];
+        this.up2 = new long[words];
+        this.down1 = new long[words];
+        this.down2 = new long[words];
+        this.targets = new long[words];
+        this.shifted = new long[words];
+        this.rightPairs = new CellMask(size);
+        this.downPairs = new CellMask(size);
+
+        for (int cell = 0; cell < size; cell++) {
+            int col = cell % width;
+            long bit = 1L << cell;
+            int w = cell >>> 6;
+            valid[w] |= bit;
+            if (col > 0) notFirstCol[w] |= bit;
+            if (col > 1) notFirstTwoCols[w] |= bit;
+            if (col < width - 1) notLastCol[w] |= bit;
+            if (col < width - 2) notLastTwoCols[w] |= bit;
+            if (cell + width < size) notLastRow[w] |= bit;
+        }
+    }
+
+    public CellMask getRightPairs() { return rightPairs; }
+    public CellMask getDownPairs() { return downPairs; }
+    public int getMoveCount() { return moveCount; }
+
+    // Recomputes the productive swaps of a settled board; returns how many there are
+    public int generate(Board board) {
+        if (board.getSize() != size || board.getWidth() != width) {
+            throw new IllegalArgumentException("Generator built for a different board size");
+        }
+
+        // The board keeps a mask per color, so nothing is scanned cell by cell. Booster tiles always
+        // carry the marker color, so the marker mask is the booster mask
+        int usedColors = 0;
+        for (byte color = 1; color <= Board.MARKER; color++) {
+            if (board.getPopulation(color) > 0) usedColors |= 1 << color;
+        }
+        long[] boosterMask = board.getColorCells(Board.MARKER).words();
+
+        long[] right = rightPairs.words();
+        long[] down = downPairs.words();
+
+        // Any swap touching a booster fires it
+        shift(boosterMask, 1, shifted);
+        for (int i = 0; i < words; i++) {
+            right[i] = (boosterMask[i] | shifted[i]) & notLastCol[i];
+        }
+        shift(boosterMask, width, shifted);
+        for (int i = 0; i < words; i++) {
+            down[i] = (boosterMask[i] | shifted[i]) & notLastRow[i];
+        }
+
+        while (usedColors != 0) {
+            int color = Integer.numberOfTrailingZeros(usedColors);
+            usedColors &= usedColors - 1;
+            addColor(board.getColorCells((byte) color).words(), right, down);
+        }
+
+        moveCount = rightPairs.count() + downPairs.count();
+        return moveCount;
+    }
+
+    // Neighbors of each cell p that hold the color: leftN has bit p when p - N does, and so on
+    private void addColor(long[] m, long[] right, long[] down) {
+        shift(m, -1, left1);
+        shift(m, -2, left2);
+        shift(m, 1, right1);
+        shift(m, 2, right2);
+        shift(m, -width, up1);
+        shift(m, -2 * width, up2);
+        shift(m, width, down1);
+        shift(m, 2 * width, down2);
+        for (int i = 0; i < words; i++) {
+            left1[i] &= notFirstCol[i];
+            left2[i] &= notFirstTwoCols[i];
+            right1[i] &= notLastCol[i];
+            right2[i] &= notLastTwoCols[i];
+        }
+
+        // Color arrives from above: pair (p - width, p), recorded at its top cell
+        for (int i = 0; i < words; i++) {
+            long horizontal = (left1[i] & left2[i]) | (right1[i] & right2[i]) | (left1[i] & right1[i]);
+            targets[i] = up1[i] & ~m[i] & valid[i] & (horizontal | (down1[i] & down2[i]));
+        }
+        shift(targets, width, shifted);
+        orInto(down, shifted);
+
+        // Color arrives from below: pair (p, p + width)
+        for (int i = 0; i < words; i++) {
+            long horizontal = (left1[i] & left2[i]) | (right1[i] & right2[i]) | (left1[i] & right1[i]);
+            down[i] |= down1[i] & ~m[i] & valid[i] & (horizontal | (up1[i] & up2[i]));
+        }
+
+        // Color arrives from the left: pair (p - 1, p), recorded at its left cell
+        for (int i = 0; i < words; i++) {
+            long vertical = (up1[i] & up2[i]) | (down1[i] & down2[i]) | (up1[i] & down1[i]);
+            targets[i] = left1[i] & ~m[i] & valid[i] & (vertical | (right1[i] & right2[i]));
+        }
+        shift(targets, 1, shifted);
+        for (int i = 0; i < words; i++) {
+            right[i] |= shifted[i] & notLastCol[i];
+        }
+
+        // Color arrives from the right: pair (p, p + 1)
+        for (int i = 0; i < words; i++) {
+            long vertical = (up1[i] & up2[i]) | (down1[i] & down2[i]) | (up1[i] & down1[i]);
+            right[i] |= right1[i] & ~m[i] & valid[i] & (vertical | (left1[i] & left2[i]));
+        }
+    }
+
+    // dst bit p = src bit (p + d); bits shifted in from outside the board are 0
+    private void shift(long[] src, int d, long[] dst) {
+        int k = Math.abs(d);
+        int wordShift = k >>> 6;
+        int bitShift = k & 63;
+        for (int i = 0; i < words; i++) {
+            long word = 0;
+            if (d >= 0) {
+                int j = i + wordShift;
+                if (j < words) {
+                    word = src[j] >>> bitShift;
+                    if (bitShift != 0 && j + 1 < words) word |= src[j + 1] << (64 - bitShift);
+                }
+            } else {
+                int j = i - wordShift;
+                if (j >= 0) {
+                    word = src[j] << bitShift;
+                    if (bitShift != 0 && j - 1 >= 0) word |= src[j - 1] >>> (64 - bitShift);
+                }
+            }
+            dst[i] = word & valid[i];
+        }
+    }
+
+    private void orInto(long[] dst, long[] src) {
+        for (int i = 0; i < words; i++) {
+            dst[i] |= src[i];
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.springliviu.gemgrid.engine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Record of one game: board setup, seed and every accepted swap, plus the final score and board
+// hash for verification. Each swap is stored as a varint of (cell << 2 | direction), 1-3 bytes
+public final class MoveLog {
+
+    private static final int MAGIC = 0x47474D4C;  // "GGML"
+    private static final int VERSION = 3;
+
+    // Direction from the first cell to the second
+    private static final int UP = 0;
+    private static final int DOWN = 1;
+    private static final int LEFT = 2;
+    private static final int RIGHT = 3;
+
+    private final int width;
+    private final int height;
+    private final int colorCount;
+    private final long seed;
+    private int[] moves = new int[64];
+    private int moveCount;
+    private int finalScore;
+    private long finalHash;
+
+    public MoveLog(int width, int height, int colorCount, long seed) {
+        this.width = width;
+        this.height = height;
+        this.colorCount = colorCount;
+        this.seed = seed;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getColorCount() { return colorCount; }
+    public long getSeed() { return seed; }
+    public int getMoveCount() { return moveCount; }
+    public int getFinalScore() { return finalScore; }
+    public long getFinalHash() { return finalHash; }
+
+    public int getFirstCell(int i) {
+        return moves[i] >>> 2;
+    }
+
+    public int getSecondCell(int i) {
+        int first = moves[i] >>> 2;
+        switch (moves[i] & 3) {
+            case UP: return first - width;
+            case DOWN: return first + width;
+            case LEFT: return first - 1;
+            default: return first + 1;
+        }
+    }
+
+    // Records a swap of two adjacent cells, first cell being the one selected first
+    public void add(int first, int second) {
+        int direction;
+        if (second == first - width) direction = UP;
+        else if (second == first + width) direction = DOWN;
+        else if (second == first - 1) direction = LEFT;
+        else if (second == first + 1) direction = RIGHT;
+        else throw new IllegalArgumentException("Cells are not adjacent: " + first + ", " + second);
+
+        if (moveCount == moves.length) {
+            moves = Arrays.copyOf(moves, moveCount * 2);
+        }
+        moves[moveCount++] = first << 2 | direction;
+    }
+
+    // Stores the outcome the replay has to reproduce
+    public void finish(int score, long boardHash) {
+        this.finalScore = score;
+        this.finalHash = boardHash;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeShort(width);
+        data.writeShort(height);
+        data.writeByte(colorCount);
+        data.writeLong(seed);
+        data.writeInt(moveCount);
+        for (int i = 0; i < moveCount; i++) {
+            writeVarInt(data, moves[i]);
+        }
+        data.writeInt(finalScore);
+        data.writeLong(finalHash);
+        data.flush();
+    }
+
+    public static MoveLog readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("Not a move log");
+        int version = data.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported move log version: " + version);
+
+        MoveLog log = new MoveLog(data.readUnsignedShort(), data.readUnsignedShort(),
+                data.readUnsignedByte(), data.readLong());
+        int count = data.readInt();
+        log.moves = new int[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) {
+            log.moves[i] = readVarInt(data);
+        }
+        log.moveCount = count;
+        log.finish(data.readInt(), data.readLong());
+        return log;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,183 @@
+package com.springliviu.gemgrid.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Snapshot of a game in progress: board, score, random state and move count. Each cell is one symbol,
+// its color or colorCount + booster type for booster tiles, packed into as few bits as the palette
+// needs (4 for 6 colors), so a 256x256 board takes 32 KB. Files are written through a FileChannel
+// and read back into a heap buffer in one call
+public final class SaveGame {
+
+    private static final int MAGIC = 0x47475356;  // "GGSV"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 1 + 2 + 2 + 1 + 1 + 8 + 8 + 4 + 4;
+
+    private final ByteBuffer data;
+    private final int width;
+    private final int height;
+    private final int colorCount;
+    private final int bitsPerCell;
+    private final long seed;
+    private final long randomState;
+    private final int score;
+    private final int moveCount;
+
+    private SaveGame(ByteBuffer data) throws IOException {
+        if (data.remaining() < HEADER_BYTES || data.getInt(0) != MAGIC) throw new IOException("Not a saved game");
+        int version = data.get(4) & 0xFF;
+        if (version != VERSION) throw new IOException("Unsupported saved game version: " + version);
+
+        this.data = data;
+        this.width = data.getShort(5) & 0xFFFF;
+        this.height = data.getShort(7) & 0xFFFF;
+        this.colorCount = data.get(9) & 0xFF;
+        this.bitsPerCell = data.get(10) & 0xFF;
+        this.seed = data.getLong(11);
+        this.randomState = data.getLong(19);
+        this.score = data.getInt(27);
+        this.moveCount = data.getInt(31);
+        if (width == 0 || height == 0 || colorCount > Board.MAX_COLORS || bitsPerCell != bitsPerCell(colorCount)
+                || data.capacity() < HEADER_BYTES + packedBytes(width * height, bitsPerCell)) {
+            throw new IOException("Corrupt saved game");
+        }
+        int invalid = unpack(null);
+        if (invalid >= 0) throw new IOException("Corrupt saved cell: " + invalid);
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getColorCount() { return colorCount; }
+    public long getSeed() { return seed; }
+    public int getScore() { return score; }
+    public int getMoveCount() { return moveCount; }
+
+    // Packs the engine's current game; cheap enough for the UI thread, the slow part is write()
+    public static ByteBuffer encode(GameEngine engine, long seed, int moveCount) {
+        Board board = engine.getBoard();
+        int colorCount = board.getColorCount();
+        int bits = bitsPerCell(colorCount);
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + packedBytes(board.getSize(), bits));
+        out.putInt(MAGIC);
+        out.put((byte) VERSION);
+        out.putShort((short) board.getWidth());
+        out.putShort((short) board.getHeight());
+        out.put((byte) colorCount);
+        out.put((byte) bits);
+        out.putLong(seed);
+        out.putLong(engine.getRandom().getState());
+        out.putInt(engine.getScore());
+        out.putInt(moveCount);
+
+        long word = 0;
+        int used = 0;
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            long symbol = symbol(board, cell, colorCount);
+            word |= symbol << used;
+            used += bits;
+            if (used >= 64) {
+                out.putLong(word);
+                used -= 64;
+                word = used == 0 ? 0 : symbol >>> (bits - used);
+            }
+        }
+        if (used > 0) out.putLong(word);
+        out.flip();
+        return out;
+    }
+
+    // Writes to a temporary file first, so a crash mid-write never leaves a broken save behind
+    public static void write(ByteBuffer encoded, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer data = encoded.duplicate();
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads the whole file and checks every cell, so restore() cannot fail halfway. The file is not
+    // mapped: a mapping outlives the channel until it is garbage collected, and while it lives the
+    // next write() cannot replace the file on Windows
+    public static SaveGame read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Not a saved game");
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) throw new IOException("Saved game changed while reading");
+            }
+            data.flip();
+            return new SaveGame(data);
+        }
+    }
+
+    // Unpacks the board into the engine and takes over score and random state
+    public void restore(GameEngine engine) {
+        Board board = engine.getBoard();
+        if (board.getWidth() != width || board.getHeight() != height || board.getColorCount() != colorCount) {
+            throw new IllegalArgumentException("Saved game is " + width + "x" + height + " with " + colorCount
+                    + " colors, board is " + board.getWidth() + "x" + board.getHeight()
+                    + " with " + board.getColorCount());
+        }
+
+        unpack(board);
+        engine.resume(score, randomState);
+    }
+
+    // Walks the packed cells, writing them to the board if there is one; returns the first cell with
+    // an invalid symbol, or -1
+    private int unpack(Board board) {
+        int size = width * height;
+        long mask = (1L << bitsPerCell) - 1;
+        int offset = HEADER_BYTES;
+        long word = data.getLong(offset);
+        int used = 0;
+        for (int cell = 0; cell < size; cell++) {
+            long symbol = word >>> used;
+            used += bitsPerCell;
+            if (used >= 64) {
+                used -= 64;
+                offset += 8;
+                word = used > 0 || cell + 1 < size ? data.getLong(offset) : 0;
+                if (used > 0) symbol |= word << (bitsPerCell - used);
+            }
+            int value = (int) (symbol & mask);
+            if (value > colorCount + Boosters.COLOR_BOMB) return cell;
+            if (board == null) continue;
+            if (value <= colorCount) {
+                board.set(cell, (byte) value, Boosters.NONE);
+            } else {
+                board.set(cell, Board.MARKER, (byte) (value - colorCount));
+            }
+        }
+        return -1;
+    }
+
+    // Booster tiles always carry the marker color, so their type alone identifies them
+    private static int symbol(Board board, int cell, int colorCount) {
+        byte booster = board.getBooster(cell);
+        return booster != Boosters.NONE ? colorCount + booster : board.getColor(cell);
+    }
+
+    private static int bitsPerCell(int colorCount) {
+        return 32 - Integer.numberOfLeadingZeros(colorCount + Boosters.COLOR_BOMB);
+    }
+
+    private static int packedBytes(int cells, int bits) {
+        return (int) (((long) cells * bits + 63) / 64) * 8;
+    }
+}
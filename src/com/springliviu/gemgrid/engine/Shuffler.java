@@ -0,0 +1,215 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Rearranges the plain tiles of a board that has no productive swap left. Boosters stay where they are
+// and the colors keep their counts. A known move is planted first: two tiles of one color side by side
+// and a third one diagonally below the next cell. The other cells are then filled in scan order,
+// drawing only colors that do not complete a run of 3. Every attempt is one linear pass. Only a very
+// lopsided color mix fails ATTEMPTS times; the plain tiles then get fresh colors instead
+public final class Shuffler {
+
+    private static final int ATTEMPTS = 8;
+    private static final int COLOR_SLOTS = Board.MARKER + 1;
+
+    private final CellMask plain;
+    private final byte[] saved;
+    private final int[] sources;
+    private final int[] byColor;
+    private final int[] start = new int[COLOR_SLOTS];
+    private final int[] total = new int[COLOR_SLOTS];
+    private final int[] remaining = new int[COLOR_SLOTS];
+    private final int[] planted = new int[4];
+    private int topColor;
+
+    public Shuffler(int size) {
+        this.plain = new CellMask(size);
+        this.saved = new byte[size];
+        this.sources = new int[size];
+        this.byColor = new int[size];
+    }
+
+    // Cell the tile now at 'cell' came from; -1 for a tile that got a fresh color
+    public int getSource(int cell) {
+        return sources[cell];
+    }
+
+    // Returns false, leaving the board as it was, if no attempt found a layout with a move
+    public boolean shuffle(Board board, GameRandom random) {
+        collect(board);
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            if (arrange(board, random, true)) return true;
+        }
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            if (arrange(board, random, false)) return true;
+        }
+
+        for (int cell = plain.nextCell(0); cell >= 0; cell = plain.nextCell(cell + 1)) {
+            board.setColor(cell, saved[cell]);
+            sources[cell] = cell;
+        }
+        return false;
+    }
+
+    // Groups the plain cells by color; boosters and empty cells stay out of the shuffle
+    private void collect(Board board) {
+        plain.clear();
+        Arrays.fill(total, 0);
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            sources[cell] = cell;
+            saved[cell] = board.getColor(cell);
+            if (board.getBooster(cell) == Boosters.NONE && !board.isEmpty(cell)) {
+                plain.add(cell);
+                total[saved[cell]]++;
+            }
+        }
+
+        int offset = 0;
+        topColor = 0;
+        for (int color = 0; color < COLOR_SLOTS; color++) {
+            if (total[color] > 0) topColor = color;
+            start[color] = offset;
+            remaining[color] = 0;
+            offset += total[color];
+        }
+        for (int cell = plain.nextCell(0); cell >= 0; cell = plain.nextCell(cell + 1)) {
+            byColor[start[saved[cell]] + remaining[saved[cell]]++] = cell;
+        }
+    }
+
+    // One pass over the plain cells; keepColors draws from the collected tiles, otherwise colors are fresh
+    private boolean arrange(Board board, GameRandom random, boolean keepColors) {
+        for (int color = 0; color < COLOR_SLOTS; color++) {
+            remaining[color] = keepColors ? total[color] : 0;
+        }
+        for (int cell = plain.nextCell(0); cell >= 0; cell = plain.nextCell(cell + 1)) {
+            board.clear(cell);
+        }
+
+        int moveColor = keepColors ? pickMoveColor(random) : Gravity.randomColor(board, random);
+        if (moveColor == Board.EMPTY || !placeMove(board, random)) return false;
+        for (int i = 0; i < 3; i++) {
+            put(board, planted[i], (byte) moveColor, random, keepColors);
+        }
+
+        for (int cell = plain.nextCell(0); cell >= 0; cell = plain.nextCell(cell + 1)) {
+            if (board.isEmpty(cell) && !fill(board, cell, random, keepColors)) return false;
+        }
+        return true;
+    }
+
+    private int pickMoveColor(GameRandom random) {
+        int candidates = 0;
+        for (int color = 1; color < COLOR_SLOTS; color++) {
+            if (total[color] >= 3) candidates++;
+        }
+        if (candidates == 0) return Board.EMPTY;
+        int pick = random.nextInt(candidates);
+        for (int color = 1; color < COLOR_SLOTS; color++) {
+            if (total[color] >= 3 && pick-- == 0) return color;
+        }
+        return Board.EMPTY;
+    }
+
+    // Chooses a random free spot for the planted move; planted[3] is the cell it is swapped with.
+    // Anchors are numbered horizontal patterns first and scanned from a random one
+    private boolean placeMove(Board board, GameRandom random) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int horizontal = width >= 3 && height >= 2 ? (height - 1) * (width - 2) : 0;
+        int vertical = height >= 3 && width >= 2 ? (height - 2) * (width - 1) : 0;
+        int anchors = horizontal + vertical;
+        if (anchors == 0) return false;
+
+        int first = random.nextInt(anchors);
+        for (int k = 0; k < anchors; k++) {
+            int anchor = (first + k) % anchors;
+            if (anchor < horizontal) {
+                int row = anchor / (width - 2);
+                int col = anchor % (width - 2);
+                planted[0] = board.index(row, col);
+                planted[1] = board.index(row, col + 1);
+                planted[2] = board.index(row + 1, col + 2);
+                planted[3] = board.index(row, col + 2);
+            } else {
+                int row = (anchor - horizontal) / (width - 1);
+                int col = (anchor - horizontal) % (width - 1);
+                planted[0] = board.index(row, col);
+                planted[1] = board.index(row + 1, col);
+                planted[2] = board.index(row + 2, col + 1);
+                planted[3] = board.index(row + 2, col);
+            }
+            if (plain.contains(planted[0]) && plain.contains(planted[1]) &&
+                    plain.contains(planted[2]) && plain.contains(planted[3])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Fills one cell with a color that does not complete a run; false if every color would
+    private boolean fill(Board board, int cell, GameRandom random, boolean keepColors) {
+        int row = board.rowOf(cell);
+        int col = board.colOf(cell);
+        int rejected = 0;
+        while (true) {
+            int color = keepColors ? pickRemaining(random, rejected) : pickFresh(board, random, rejected);
+            if (color == Board.EMPTY) return false;
+            board.setColor(cell, (byte) color);
+            if (!MatchFinder.isMatch(board, row, col)) {
+                put(board, cell, (byte) color, random, keepColors);
+                return true;
+            }
+            board.clear(cell);
+            rejected |= 1 << color;
+        }
+    }
+
+    // Weighted by the square of the tiles left of each color, so a dominant color is spread over the
+    // whole board instead of piling up in the last rows
+    private int pickRemaining(GameRandom random, int rejected) {
+        long weight = 0;
+        for (int color = 1; color <= topColor; color++) {
+            if ((rejected & (1 << color)) == 0) weight += (long) remaining[color] * remaining[color];
+        }
+        if (weight == 0) return Board.EMPTY;
+        long pick = random.nextLong() >>> 1;
+        pick %= weight;
+        for (int color = 1; color <= topColor; color++) {
+            if ((rejected & (1 << color)) != 0) continue;
+            pick -= (long) remaining[color] * remaining[color];
+            if (pick < 0) return color;
+        }
+        return Board.EMPTY;
+    }
+
+    private int pickFresh(Board board, GameRandom random, int rejected) {
+        int allowed = 0;
+        for (int color = 1; color <= board.getColorCount(); color++) {
+            if ((rejected & (1 << color)) == 0) allowed++;
+        }
+        if (allowed == 0) return Board.EMPTY;
+        int pick = random.nextInt(allowed);
+        for (int color = 1; color <= board.getColorCount(); color++) {
+            if ((rejected & (1 << color)) == 0 && pick-- == 0) return color;
+        }
+        return Board.EMPTY;
+    }
+
+    // Places a color and records which old tile of that color moved here
+    private void put(Board board, int cell, byte color, GameRandom random, boolean keepColors) {
+        board.setColor(cell, color);
+        if (!keepColors) {
+            sources[cell] = -1;
+            return;
+        }
+        int base = start[color];
+        int last = base + remaining[color] - 1;
+        int pick = base + random.nextInt(remaining[color]);
+        int source = byColor[pick];
+        byColor[pick] = byColor[last];
+        byColor[last] = source;
+        remaining[color]--;
+        sources[cell] = source;
+    }
+}
@@ -0,0 +1,10 @@
+package com.springliviu.gemgrid.engine;
+
+// Outcome of a player swap as resolved by the engine
+public enum SwapResult {
+    REJECTED,          // No match and no booster; the swap was reverted
+    MATCH,             // Plain tiles formed a match
+    BOOSTER,           // A single ROW or COLUMN booster fired
+    LINE_COMBO,        // Two line boosters fired as a cross
+    COLOR_BOMB_COMBO   // A color bomb fired with whatever it was swapped with
+}
@@ -0,0 +1,93 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Fixed-size cache of values keyed by Board.getHash(), shared by any number of threads without locks.
+// Slots come in pairs: the first keeps the deepest entry of the current generation, the second takes
+// whatever the first turned away, so deep results survive and recent ones still get in. Entries from
+// an older generation (see nextGeneration()) are replaced first.
+// A slot is three plain array elements that racing writers may leave mixed; the stored key is the hash
+// XOR value XOR meta, so a torn slot fails the check and reads as a miss instead of a wrong value
+public final class TranspositionTable {
+
+    private static final int MAX_DEPTH = 0xFF;
+
+    private final long[] keys;
+    private final long[] values;
+    private final int[] metas;   // generation << 8 | depth; 0 marks an unused slot
+    private final int mask;
+    private volatile int generation = 1;
+
+    // Capacity is rounded up to a power of two entries, at least 2; each entry takes 20 bytes
+    public TranspositionTable(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be in 1..2^30: " + capacity);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        keys = new long[size];
+        values = new long[size];
+        metas = new int[size];
+        mask = size - 2;
+    }
+
+    public int getCapacity() { return keys.length; }
+
+    // Value stored for the hash with at least the given depth, or absent
+    public long get(long hash, int minDepth, long absent) {
+        int slot = bucket(hash);
+        for (int i = slot; i < slot + 2; i++) {
+            long value = values[i];
+            int meta = metas[i];
+            if (keys[i] == (hash ^ value ^ meta) && meta != 0 && (meta & MAX_DEPTH) >= minDepth) {
+                return value;
+            }
+        }
+        return absent;
+    }
+
+    // Value stored for the hash at any depth, or absent
+    public long get(long hash, long absent) {
+        return get(hash, 0, absent);
+    }
+
+    // Stores a value; depth (0..255) says how much work it took, deeper entries are kept longer
+    public void put(long hash, int depth, long value) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be in 0.." + MAX_DEPTH + ": " + depth);
+        }
+        int meta = generation << 8 | depth;
+        int slot = bucket(hash);
+        int kept = metas[slot];
+        boolean sameKey = keys[slot] == (hash ^ values[slot] ^ kept);
+        if (sameKey || kept >>> 8 != generation || depth >= (kept & MAX_DEPTH)) {
+            write(slot, hash, value, meta);
+        } else {
+            write(slot + 1, hash, value, meta);
+        }
+    }
+
+    // Ages every entry at once, e.g. when a new search starts; old entries stay readable until replaced
+    public void nextGeneration() {
+        int next = generation + 1;
+        generation = next > 0xFFFFFF ? 1 : next;
+    }
+
+    // Drops every entry; not safe while other threads are writing
+    public void clear() {
+        Arrays.fill(metas, 0);
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        generation = 1;
+    }
+
+    private void write(int slot, long hash, long value, int meta) {
+        values[slot] = value;
+        metas[slot] = meta;
+        keys[slot] = hash ^ value ^ meta;
+    }
+
+    // First slot of the hash's pair, with the high half of the hash folded into the index
+    private int bucket(long hash) {
+        return (int) (hash >>> 32 ^ hash) & mask;
+    }
+}
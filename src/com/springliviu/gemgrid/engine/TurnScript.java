@@ -0,0 +1,151 @@
+package com.springliviu.gemgrid.engine;
+
+import java.util.Arrays;
+
+// Ordered record of what a view has to show for one turn, written while the engine resolves the whole
+// turn at once. Each step is one of:
+//   SHOW    cells that change look immediately (swapped tiles, new boosters)
+//   FADE    cells cleared by a match or a booster
+//   DROP    tiles that fell or spawned; aux is the row they came from, DropList.SPAWNED if new
+//   SHUFFLE tiles moved by a dead-board reshuffle; aux is the old cell, -1 for a fresh color
+// Every entry carries the cell's color and booster at that point, since the board itself is already
+// in its final state. A private copy of what the view shows lets SHOW steps list only real changes
+public final class TurnScript {
+
+    public static final int SHOW = 0;
+    public static final int FADE = 1;
+    public static final int DROP = 2;
+    public static final int SHUFFLE = 3;
+
+    private final Board shown;
+
+    private int stepCount;
+    private int[] kinds = new int[16];
+    private int[] starts = new int[16];
+    private int[] scores = new int[16];
+
+    private int entryCount;
+    private int[] cells;
+    private int[] aux;
+    private byte[] colors;
+    private byte[] boosters;
+
+    public TurnScript(Board board) {
+        this.shown = new Board(board.getWidth(), board.getHeight(), board.getColorCount());
+        int capacity = board.getSize() * 2;
+        this.cells = new int[capacity];
+        this.aux = new int[capacity];
+        this.colors = new byte[capacity];
+        this.boosters = new byte[capacity];
+        reset(board);
+    }
+
+    // Takes the board as what the view currently shows and drops any recorded steps
+    public void reset(Board board) {
+        shown.copyFrom(board);
+        clear();
+    }
+
+    void clear() {
+        stepCount = 0;
+        entryCount = 0;
+    }
+
+    public int getStepCount() { return stepCount; }
+    public int getKind(int step) { return kinds[step]; }
+    public int getScore(int step) { return scores[step]; }
+
+    // Entries of a step are [getStart(step), getEnd(step))
+    public int getStart(int step) { return starts[step]; }
+    public int getEnd(int step) { return step + 1 < stepCount ? starts[step + 1] : entryCount; }
+
+    public int getCell(int entry) { return cells[entry]; }
+    public int getAux(int entry) { return aux[entry]; }
+    public byte getColor(int entry) { return colors[entry]; }
+    public byte getBooster(int entry) { return boosters[entry]; }
+
+    // Cells whose look changed, except the cleared ones, which still fade out as they were. Every
+    // change since the last match pass is inside the board's dirty region, so only its row spans
+    // are compared, which keeps a turn on a large board from costing a full scan per step
+    void recordShow(Board board, CellMask cleared, int score) {
+        beginStep(SHOW, score);
+        DirtyRegion dirty = board.getDirtyRegion();
+        for (int i = 0; i < dirty.getRowCount(); i++) {
+            int row = dirty.getRow(i);
+            int first = board.index(row, dirty.getRowStart(row));
+            int last = board.index(row, dirty.getRowEnd(row));
+            for (int cell = first; cell <= last; cell++) {
+                if (cleared.contains(cell)) continue;
+                byte color = board.getColor(cell);
+                byte booster = board.getBooster(cell);
+                if (color != shown.getColor(cell) || booster != shown.getBooster(cell)) {
+                    addEntry(cell, 0, color, booster);
+                    shown.set(cell, color, booster);
+                }
+            }
+        }
+        endStep();
+    }
+
+    void recordFade(CellMask cleared, int score) {
+        beginStep(FADE, score);
+        for (int cell = cleared.nextCell(0); cell >= 0; cell = cleared.nextCell(cell + 1)) {
+            addEntry(cell, 0, shown.getColor(cell), shown.getBooster(cell));
+            shown.clear(cell);
+        }
+        endStep();
+    }
+
+    void recordDrops(Board board, DropList drops, int score) {
+        beginStep(DROP, score);
+        for (int i = 0; i < drops.size(); i++) {
+            int cell = drops.getTarget(i);
+            addEntry(cell, drops.getFromRow(i), board.getColor(cell), board.getBooster(cell));
+            shown.set(cell, board.getColor(cell), board.getBooster(cell));
+        }
+        endStep();
+    }
+
+    void recordShuffle(Board board, Shuffler shuffler, int score) {
+        beginStep(SHUFFLE, score);
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            int source = shuffler.getSource(cell);
+            if (source == cell) continue;
+            addEntry(cell, source, board.getColor(cell), board.getBooster(cell));
+            shown.set(cell, board.getColor(cell), board.getBooster(cell));
+        }
+        endStep();
+    }
+
+    private void beginStep(int kind, int score) {
+        if (stepCount == kinds.length) {
+            kinds = Arrays.copyOf(kinds, stepCount * 2);
+            starts = Arrays.copyOf(starts, stepCount * 2);
+            scores = Arrays.copyOf(scores, stepCount * 2);
+        }
+        kinds[stepCount] = kind;
+        starts[stepCount] = entryCount;
+        scores[stepCount] = score;
+        stepCount++;
+    }
+
+    // Steps without entries are dropped, so a view never waits on an empty animation
+    private void endStep() {
+        if (starts[stepCount - 1] == entryCount) stepCount--;
+    }
+
+    private void addEntry(int cell, int auxValue, byte color, byte booster) {
+        if (entryCount == cells.length) {
+            int capacity = entryCount * 2;
+            cells = Arrays.copyOf(cells, capacity);
+            aux = Arrays.copyOf(aux, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            boosters = Arrays.copyOf(boosters, capacity);
+        }
+        cells[entryCount] = cell;
+        aux[entryCount] = auxValue;
+        colors[entryCount] = color;
+        boosters[entryCount] = booster;
+        entryCount++;
+    }
+}
@@ -0,0 +1,85 @@
+package com.springliviu.gemgrid.engine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Match detection in SIMD lanes over the byte-coded board, one vector of columns at a time. Each row is
+// compared with itself shifted by one and two cells, and with the rows above and below it; a cell is
+// matched when three equal colors line up through it, i.e. a run starts at it or one of the two cells
+// before it, across or down. The board is copied into a buffer with two EMPTY cells around every row
+// and two EMPTY rows above and below, so edges need no special case: an EMPTY cell is never matched and
+// never equals a colored one. Needs the jdk.incubator.vector module (--add-modules jdk.incubator.vector);
+// create it through MatchDetector.create("vector"), which falls back to BitboardMatcher without it
+public final class VectorMatcher implements MatchDetector {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int PAD = 2;
+
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final byte[] padded;
+
+    public VectorMatcher(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.stride = width + 2 * PAD;
+        // The last vector of a row may read past the padding, up to a full vector beyond the board
+        this.padded = new byte[(height + 2 * PAD) * stride + SPECIES.length()];
+    }
+
+    // Lanes per vector on this machine
+    public static int getLanes() { return SPECIES.length(); }
+
+    @Override
+    public boolean findMatches(Board board, CellMask out) {
+        if (board.getWidth() != width || board.getHeight() != height) {
+            throw new IllegalArgumentException("Matcher built for " + width + "x" + height +
+                    ", got " + board.getWidth() + "x" + board.getHeight());
+        }
+        byte[] colors = board.colors();
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(colors, row * width, padded, (row + PAD) * stride + PAD, width);
+        }
+
+        out.clear();
+        boolean any = false;
+        int lanes = SPECIES.length();
+        for (int row = 0; row < height; row++) {
+            int rowStart = (row + PAD) * stride + PAD;
+            for (int col = 0; col < width; col += lanes) {
+                long bits = matchLanes(rowStart + col);
+                if (width - col < lanes) bits &= (1L << (width - col)) - 1;
+                if (bits == 0) continue;
+                out.addBits(row * width + col, bits);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    // Matched cells among the lanes starting at padded index i, bit k for lane k
+    private long matchLanes(int i) {
+        ByteVector center = ByteVector.fromArray(SPECIES, padded, i);
+
+        ByteVector left1 = ByteVector.fromArray(SPECIES, padded, i - 1);
+        ByteVector right1 = ByteVector.fromArray(SPECIES, padded, i + 1);
+        VectorMask<Byte> sameLeft = left1.eq(center);
+        VectorMask<Byte> sameRight = center.eq(right1);
+        VectorMask<Byte> across = sameLeft.and(sameRight)
+                .or(sameLeft.and(ByteVector.fromArray(SPECIES, padded, i - 2).eq(left1)))
+                .or(sameRight.and(right1.eq(ByteVector.fromArray(SPECIES, padded, i + 2))));
+
+        ByteVector up1 = ByteVector.fromArray(SPECIES, padded, i - stride);
+        ByteVector down1 = ByteVector.fromArray(SPECIES, padded, i + stride);
+        VectorMask<Byte> sameUp = up1.eq(center);
+        VectorMask<Byte> sameDown = center.eq(down1);
+        VectorMask<Byte> down = sameUp.and(sameDown)
+                .or(sameUp.and(ByteVector.fromArray(SPECIES, padded, i - 2 * stride).eq(up1)))
+                .or(sameDown.and(down1.eq(ByteVector.fromArray(SPECIES, padded, i + 2 * stride))));
+
+        return across.or(down).and(center.compare(VectorOperators.NE, Board.EMPTY)).toLong();
+    }
+}
@@ -0,0 +1,32 @@
+package com.springliviu.gemgrid.engine;
+
+// Zobrist keys for (cell, color, booster). A board's hash is the XOR of the keys of all its cells, so
+// a change to one cell updates it with two XORs, and boards with the same content hash equally
+// however they were reached. Keys are mixed from the cell and symbol on demand instead of read from
+// a table, which for 64 symbols per cell would take 128 MB on a 512x512 board
+public final class Zobrist {
+
+    private static final long SALT = 0x6a09e667f3bcc909L;
+
+    private Zobrist() {
+    }
+
+    // Key of a cell showing the color and booster; an empty cell adds nothing, so an empty board hashes to 0
+    public static long key(int cell, byte color, byte booster) {
+        int symbol = color | booster << 4;
+        if (symbol == 0) return 0;
+        long z = SALT + (((long) cell << 6) | symbol) * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // Hash of the board computed from scratch; always equal to Board.getHash()
+    public static long hash(Board board) {
+        long hash = 0;
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            hash ^= key(cell, board.getColor(cell), board.getBooster(cell));
+        }
+        return hash;
+    }
+}
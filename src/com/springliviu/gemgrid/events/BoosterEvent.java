@@ -0,0 +1,27 @@
+package com.springliviu.gemgrid.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One booster activation or booster combo fired by a swap
+@Name("gemgrid.Booster")
+@Label("Booster Activation")
+@Category("GemGrid")
+@Description("A swap that fired one booster or a combo of two")
+public class BoosterEvent extends Event {
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Swap Result")
+    public String result;
+
+    @Label("Cells Cleared")
+    public int cellsCleared;
+}
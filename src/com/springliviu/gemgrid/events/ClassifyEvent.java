@@ -0,0 +1,31 @@
+package com.springliviu.gemgrid.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One booster classification of a match pass, the engine's classifyMatchesAndBoosters
+@Name("gemgrid.Classify")
+@Label("Match Classification")
+@Category("GemGrid")
+@Description("Clusters of matched cells sorted into boosters and cleared cells")
+public class ClassifyEvent extends Event {
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Cells Cleared")
+    public int cellsCleared;
+
+    @Label("Boosters Spawned")
+    public int boostersSpawned;
+
+    @Label("Cascade Depth")
+    @Description("Match passes already made this turn")
+    public int cascadeDepth;
+}
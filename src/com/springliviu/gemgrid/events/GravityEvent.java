@@ -0,0 +1,29 @@
+package com.springliviu.gemgrid.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One engine gravity pass
+@Name("gemgrid.Gravity")
+@Label("Gravity Pass")
+@Category("GemGrid")
+@Description("Column compaction and refill after cells were cleared")
+public class GravityEvent extends Event {
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Tiles Moved")
+    @Description("Tiles that fell or were spawned")
+    public int tilesMoved;
+
+    @Label("Cascade Depth")
+    @Description("Match passes already made this turn")
+    public int cascadeDepth;
+}
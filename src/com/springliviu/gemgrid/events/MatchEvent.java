@@ -0,0 +1,32 @@
+package com.springliviu.gemgrid.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One engine match pass over the board, the engine's findMatchedTiles
+@Name("gemgrid.Match")
+@Label("Match Pass")
+@Category("GemGrid")
+@Description("Search for runs of 3 or more after a swap or a gravity pass")
+public class MatchEvent extends Event {
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Full Scan")
+    @Description("Whole board scanned instead of the dirty region only")
+    public boolean fullScan;
+
+    @Label("Cells Matched")
+    public int cellsMatched;
+
+    @Label("Cascade Depth")
+    @Description("Match passes already made this turn")
+    public int cascadeDepth;
+}
@@ -0,0 +1,28 @@
+package com.springliviu.gemgrid.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One call into the Tile-based reference code in TileUtils
+@Name("gemgrid.TileScan")
+@Label("Tile Scan")
+@Category("GemGrid")
+@Description("findMatchedTiles or classifyMatchesAndBoosters on a Tile grid")
+public class TileScanEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Tiles")
+    @Description("Matched tiles found, or tiles classified")
+    public int tiles;
+}
@@ -0,0 +1,30 @@
+package com.springliviu.gemgrid.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One click that swapped two tiles; the duration is the game logic only, without animation
+@Name("gemgrid.Turn")
+@Label("Turn")
+@Category("GemGrid")
+@Description("Swap handling in Main, from the click to the resolved board")
+public class TurnEvent extends Event {
+
+    @Label("Board Width")
+    public int width;
+
+    @Label("Board Height")
+    public int height;
+
+    @Label("Swap Result")
+    public String result;
+
+    @Label("Cells Cleared")
+    public int cellsCleared;
+
+    @Label("Cascade Depth")
+    public int cascadeDepth;
+}
@@ -0,0 +1,64 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.MoveGenerator;
+
+// Plays the productive swap with the highest immediate score, trying each one on a scratch copy.
+// The copy shares the game's random state, so the refills it sees are the real ones; ties go to
+// a random candidate
+public final class GreedyPolicy implements Policy {
+
+    private final GameRandom random = new GameRandom(0);
+    private GameEngine scratch;
+    private int bestFirst;
+    private int bestSecond;
+    private int bestGain;
+    private int ties;
+
+    @Override
+    public void reset(long seed) {
+        random.setState(seed);
+    }
+
+    @Override
+    public boolean playMove(GameEngine engine) {
+        Board board = engine.getBoard();
+        if (scratch == null || scratch.getBoard().getSize() != board.getSize()) {
+            scratch = new GameEngine(new Board(board.getWidth(), board.getHeight(), board.getColorCount()),
+                    new GameRandom(0));
+        }
+
+        bestFirst = -1;
+        bestSecond = -1;
+        bestGain = -1;
+        ties = 0;
+        MoveGenerator moves = engine.findMoves();
+        tryPairs(engine, moves.getRightPairs(), 1);
+        tryPairs(engine, moves.getDownPairs(), board.getWidth());
+
+        if (bestFirst < 0) return false;
+        engine.play(bestFirst, bestSecond);
+        return true;
+    }
+
+    private void tryPairs(GameEngine engine, CellMask pairs, int offset) {
+        for (int first = pairs.nextCell(0); first >= 0; first = pairs.nextCell(first + 1)) {
+            int second = first + offset;
+            scratch.copyFrom(engine);
+            scratch.play(first, second);
+            int gain = scratch.getScore() - engine.getScore();
+            if (gain > bestGain) {
+                bestGain = gain;
+                bestFirst = first;
+                bestSecond = second;
+                ties = 1;
+            } else if (gain == bestGain && random.nextInt(++ties) == 0) {
+                bestFirst = first;
+                bestSecond = second;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.GameEngine;
+
+// Move choice for headless players. Implementations keep their own scratch state, so use one per thread
+public interface Policy {
+
+    // The "search" policy: single-threaded with a rollout budget, so simulations stay reproducible
+    int SEARCH_ROLLOUTS = 200;
+    int SEARCH_DEPTH = 6;
+
+    // Seeds the policy's own randomness for a new game
+    void reset(long seed);
+
+    // Plays one productive swap as a full turn; returns false when no productive swap is left
+    boolean playMove(GameEngine engine);
+
+    static Policy create(String name) {
+        switch (name) {
+            case "random":
+                return new RandomPolicy();
+            case "greedy":
+                return new GreedyPolicy();
+            case "search":
+                return new SearchPolicy(0, SEARCH_ROLLOUTS, SEARCH_DEPTH, 1);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.MoveGenerator;
+
+// Plays a uniformly random productive swap
+public final class RandomPolicy implements Policy {
+
+    private final GameRandom random = new GameRandom(0);
+
+    @Override
+    public void reset(long seed) {
+        random.setState(seed);
+    }
+
+    @Override
+    public boolean playMove(GameEngine engine) {
+        Board board = engine.getBoard();
+        MoveGenerator moves = engine.findMoves();
+        if (moves.getMoveCount() == 0) return false;
+
+        // Right pairs are numbered first, then down pairs
+        int pick = random.nextInt(moves.getMoveCount());
+        CellMask pairs = moves.getRightPairs();
+        int offset = 1;
+        if (pick >= pairs.count()) {
+            pick -= pairs.count();
+            pairs = moves.getDownPairs();
+            offset = board.getWidth();
+        }
+        int cell = pairs.nextCell(0);
+        for (int k = 0; k < pick; k++) {
+            cell = pairs.nextCell(cell + 1);
+        }
+        engine.play(cell, cell + offset);
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.MoveLog;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Replays recorded games without a display and checks their final score and board hash.
+// Usage: ReplayRunner <file or directory>...  (directories are searched for *.ggml)
+public class ReplayRunner {
+
+    // Replays a log from its seed; returns true if score and board hash match the recording
+    public static boolean verify(MoveLog log) {
+        Board board = new Board(log.getWidth(), log.getHeight(), log.getColorCount());
+        GameEngine engine = new GameEngine(board, new GameRandom(log.getSeed()));
+        engine.newGame(log.getSeed());
+
+        for (int i = 0; i < log.getMoveCount(); i++) {
+            engine.play(log.getFirstCell(i), log.getSecondCell(i));
+        }
+        return engine.getScore() == log.getFinalScore() && board.contentHash() == log.getFinalHash();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayRunner <file or directory>...");
+            System.exit(2);
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> walk = Files.walk(path)) {
+                    walk.filter(p -> p.toString().endsWith(".ggml")).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(path);
+            }
+        }
+
+        long start = System.nanoTime();
+        long moves = 0;
+        int failed = 0;
+        for (Path file : files) {
+            MoveLog log;
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                log = MoveLog.readFrom(in);
+            }
+            moves += log.getMoveCount();
+            if (!verify(log)) {
+                failed++;
+                System.out.println("MISMATCH " + file);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games, %d moves, %d mismatches in %.2f s%n", files.size(), moves, failed, seconds);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,246 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Monte Carlo search over the productive swaps. The refills after each clear are chance nodes: every
+// rollout plays the swap on a scratch copy whose random state is drawn fresh, so it sees one possible
+// set of refills and never the game's real ones, then continues with random moves for depth - 1 turns.
+// The value of a swap is the mean points of its rollouts, which estimates the expectimax value over
+// the refills. Rollouts are handed to the swaps by UCB1, so promising swaps get sampled more.
+// Search is root-parallel: each worker thread has its own copy, random stream and statistics, which
+// are summed at the end. With a rollout budget and no time limit the result depends only on the seed
+// and thread count.
+public final class SearchPolicy implements Policy {
+
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    private final long budgetNanos;
+    private final int rollouts;
+    private final int depth;
+    private final Worker[] workers;
+    private final ExecutorService pool;
+    private final GameRandom random = new GameRandom(0);
+    private final List<Future<?>> running = new ArrayList<>();
+
+    // Candidate swaps of the current search
+    private int[] firsts = new int[0];
+    private int[] seconds = new int[0];
+    private int candidateCount;
+    private int bestFirst = -1;
+    private int bestSecond = -1;
+    private long nodes;
+
+    // budgetNanos limits each search by time (0 for none), rollouts by count (0 for none); at least one
+    // must be set. threads > 1 runs that many workers, the calling thread being one of them
+    public SearchPolicy(long budgetNanos, int rollouts, int depth, int threads) {
+        if (budgetNanos < 0 || rollouts < 0 || (budgetNanos == 0 && rollouts == 0)) {
+            throw new IllegalArgumentException("Search needs a time or rollout budget");
+        }
+        if (depth < 1) throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+        if (threads < 1) throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+        this.budgetNanos = budgetNanos;
+        this.rollouts = rollouts;
+        this.depth = depth;
+        this.workers = new Worker[threads];
+        this.pool = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread thread = new Thread(r, "gemgrid-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void reset(long seed) {
+        random.setState(seed);
+    }
+
+    @Override
+    public boolean playMove(GameEngine engine) {
+        if (!search(engine)) return false;
+        engine.play(bestFirst, bestSecond);
+        return true;
+    }
+
+    // Picks a swap for the engine's board without changing it; false when there is none.
+    // Read the choice with getBestFirst() and getBestSecond()
+    public boolean search(GameEngine engine) {
+        Board board = engine.getBoard();
+        collectCandidates(engine.findMoves(), board.getWidth());
+        bestFirst = -1;
+        bestSecond = -1;
+        nodes = 0;
+        if (candidateCount == 0) return false;
+        if (candidateCount == 1) {
+            bestFirst = firsts[0];
+            bestSecond = seconds[0];
+            return true;
+        }
+
+        long deadline = budgetNanos == 0 ? Long.MAX_VALUE : System.nanoTime() + budgetNanos;
+        for (int i = 0; i < workers.length; i++) {
+            if (workers[i] == null || workers[i].scratch.getBoard().getSize() != board.getSize()) {
+                workers[i] = new Worker(board);
+            }
+            int share = rollouts == 0 ? Integer.MAX_VALUE
+                    : rollouts / workers.length + (i < rollouts % workers.length ? 1 : 0);
+            workers[i].prepare(engine, random.nextLong(), share, deadline);
+        }
+        runWorkers();
+        pickBest();
+        return true;
+    }
+
+    public int getBestFirst() { return bestFirst; }
+    public int getBestSecond() { return bestSecond; }
+
+    // Turns simulated by the last search, across all workers
+    public long getNodes() { return nodes; }
+
+    private void collectCandidates(MoveGenerator moves, int width) {
+        int count = moves.getMoveCount();
+        if (firsts.length < count) {
+            firsts = new int[count];
+            seconds = new int[count];
+        }
+        candidateCount = 0;
+        addPairs(moves.getRightPairs(), 1);
+        addPairs(moves.getDownPairs(), width);
+    }
+
+    private void addPairs(CellMask pairs, int offset) {
+        for (int first = pairs.nextCell(0); first >= 0; first = pairs.nextCell(first + 1)) {
+            firsts[candidateCount] = first;
+            seconds[candidateCount] = first + offset;
+            candidateCount++;
+        }
+    }
+
+    private void runWorkers() {
+        running.clear();
+        for (int i = 1; i < workers.length; i++) {
+            running.add(pool.submit(workers[i]));
+        }
+        workers[0].run();
+        try {
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+
+    // Highest mean over all workers; an unsampled swap only wins if nothing was sampled
+    private void pickBest() {
+        double bestMean = -1;
+        for (int c = 0; c < candidateCount; c++) {
+            long visits = 0;
+            long points = 0;
+            for (Worker worker : workers) {
+                visits += worker.visits[c];
+                points += worker.points[c];
+            }
+            double mean = visits == 0 ? -1 : (double) points / visits;
+            if (bestFirst < 0 || mean > bestMean) {
+                bestMean = mean;
+                bestFirst = firsts[c];
+                bestSecond = seconds[c];
+            }
+        }
+        for (Worker worker : workers) {
+            nodes += worker.nodes;
+        }
+    }
+
+    // One thread's share of the search, with its own copy of the game and its own statistics
+    private final class Worker implements Runnable {
+
+        private final GameEngine scratch;
+        private final GameRandom chance = new GameRandom(0);
+        private final RandomPolicy playout = new RandomPolicy();
+        private GameEngine engine;
+        private int[] visits = new int[0];
+        private long[] points = new long[0];
+        private int budget;
+        private long deadline;
+        private long nodes;
+
+        Worker(Board board) {
+            scratch = new GameEngine(new Board(board.getWidth(), board.getHeight(), board.getColorCount()),
+                    new GameRandom(0));
+        }
+
+        void prepare(GameEngine engine, long seed, int budget, long deadline) {
+            this.engine = engine;
+            this.budget = budget;
+            this.deadline = deadline;
+            chance.setState(seed);
+            playout.reset(chance.nextLong());
+            if (visits.length < candidateCount) {
+                visits = new int[candidateCount];
+                points = new long[candidateCount];
+            } else {
+                Arrays.fill(visits, 0, candidateCount, 0);
+                Arrays.fill(points, 0, candidateCount, 0);
+            }
+            nodes = 0;
+        }
+
+        // The engine is only read, by every worker at once, so it must not change during the search
+        @Override
+        public void run() {
+            long best = 1;
+            for (int n = 0; n < budget && System.nanoTime() < deadline; n++) {
+                int c = n < candidateCount ? n : select(n, best);
+                long gained = rollout(firsts[c], seconds[c]);
+                visits[c]++;
+                points[c] += gained;
+                best = Math.max(best, points[c] / visits[c]);
+            }
+        }
+
+        // UCB1 with the exploration term scaled to the best mean seen, since points have no fixed range
+        private int select(int n, long best) {
+            double logN = Math.log(n);
+            int choice = 0;
+            double top = Double.NEGATIVE_INFINITY;
+            for (int c = 0; c < candidateCount; c++) {
+                double mean = (double) points[c] / visits[c];
+                double value = mean + EXPLORATION * best * Math.sqrt(logN / visits[c]);
+                if (value > top) {
+                    top = value;
+                    choice = c;
+                }
+            }
+            return choice;
+        }
+
+        // Points of one sampled future: the swap with fresh refills, then random moves
+        private long rollout(int first, int second) {
+            scratch.copyFrom(engine);
+            scratch.getRandom().setState(chance.nextLong());
+            int start = scratch.getScore();
+            scratch.play(first, second);
+            nodes++;
+            for (int turn = 1; turn < depth && playout.playMove(scratch); turn++) {
+                nodes++;
+            }
+            return scratch.getScore() - start;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.Boosters;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Plays many headless games in parallel and prints score, cascade, booster and dead-board statistics.
+// Game i always gets the same seed, so results do not depend on thread count or scheduling.
+// Usage: SimulationRunner [games=100000] [policy=random|greedy|search] [width=8] [height=8] [colors=6]
+//                         [moves=30] [minMoves=0] [seed=1] [threads=<cores>] [bucket=100]
+//                         [rollouts=200] [depth=6] [budgetMs=0]   (search only)
+public class SimulationRunner {
+
+    private static final int BATCH = 1000;
+    static final long POLICY_SALT = 0x5DEECE66DL;
+
+    private final Supplier<Policy> policy;
+    private final int width;
+    private final int height;
+    private final int colors;
+    private final int moves;
+    private final int minMoves;
+    private final long seed;
+    private final int bucket;
+
+    public SimulationRunner(Supplier<Policy> policy, int width, int height, int colors, int moves, int minMoves,
+                            long seed, int bucket) {
+        this.policy = policy;
+        this.width = width;
+        this.height = height;
+        this.colors = colors;
+        this.moves = moves;
+        this.minMoves = minMoves;
+        this.seed = seed;
+        this.bucket = bucket;
+    }
+
+    public SimulationStats run(long games, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new Batch(0, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Plays games [from, to) on one thread with one reused board, engine and policy
+    private SimulationStats playGames(long from, long to) {
+        SimulationStats stats = new SimulationStats(bucket);
+        Board board = new Board(width, height, colors);
+        GameEngine engine = new GameEngine(board, new GameRandom(0));
+        engine.setMinMoves(minMoves);
+        Policy player = policy.get();
+        GameRandom seeds = new GameRandom(0);
+
+        for (long game = from; game < to; game++) {
+            long gameSeed = gameSeed(seeds, seed, game);
+            engine.newGame(gameSeed);
+            player.reset(gameSeed ^ POLICY_SALT);
+
+            boolean dead = false;
+            for (int move = 0; move < moves; move++) {
+                if (!player.playMove(engine)) {
+                    dead = true;
+                    break;
+                }
+                stats.recordTurn(engine.getCascadeDepth());
+            }
+            stats.recordGame(engine.getScore(), dead, engine.getShuffles(),
+                    engine.getSpawnedBoosters(Boosters.ROW),
+                    engine.getSpawnedBoosters(Boosters.COLUMN),
+                    engine.getSpawnedBoosters(Boosters.COLOR_BOMB));
+        }
+        return stats;
+    }
+
+    private final class Batch extends RecursiveTask<SimulationStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        Batch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (to - from <= BATCH) {
+                return playGames(from, to);
+            }
+            long mid = (from + to) >>> 1;
+            Batch left = new Batch(from, mid);
+            left.fork();
+            SimulationStats stats = new Batch(mid, to).compute();
+            stats.merge(left.join());
+            return stats;
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        long games = Long.parseLong(options.getOrDefault("games", "100000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        SimulationRunner runner = new SimulationRunner(
+                policies(options),
+                Integer.parseInt(options.getOrDefault("width", "8")),
+                Integer.parseInt(options.getOrDefault("height", "8")),
+                Integer.parseInt(options.getOrDefault("colors", "6")),
+                Integer.parseInt(options.getOrDefault("moves", "30")),
+                Integer.parseInt(options.getOrDefault("minMoves", "0")),
+                Long.parseLong(options.getOrDefault("seed", "1")),
+                Integer.parseInt(options.getOrDefault("bucket", "100")));
+
+        long start = System.nanoTime();
+        SimulationStats stats = runner.run(games, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        stats.print(System.out);
+        System.out.printf("%d threads, %.2f s, %.0f games/s%n", threads, seconds, games / seconds);
+    }
+
+    // A search player per worker thread, single-threaded itself since the games already use every core
+    static Supplier<Policy> policies(Map<String, String> options) {
+        String name = options.getOrDefault("policy", "random");
+        if (!name.equals("search")) {
+            return () -> Policy.create(name);
+        }
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(options.getOrDefault("budgetMs", "0")));
+        int rollouts = Integer.parseInt(options.getOrDefault("rollouts",
+                String.valueOf(budgetNanos > 0 ? 0 : Policy.SEARCH_ROLLOUTS)));
+        int depth = Integer.parseInt(options.getOrDefault("depth", String.valueOf(Policy.SEARCH_DEPTH)));
+        return () -> new SearchPolicy(budgetNanos, rollouts, depth, 1);
+    }
+
+    // Seed of game i of a run, the same for every tool and thread count
+    static long gameSeed(GameRandom seeds, long seed, long game) {
+        seeds.setState(seed + game * 0x9e3779b97f4a7c15L);
+        return seeds.nextLong();
+    }
+
+    // Arguments are key=value pairs
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
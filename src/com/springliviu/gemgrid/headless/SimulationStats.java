@@ -0,0 +1,120 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Boosters;
+
+import java.io.PrintStream;
+
+// Aggregated results of many simulated games. Each worker fills its own instance; merge() combines them
+public final class SimulationStats {
+
+    private static final int SCORE_BUCKETS = 4096;
+    private static final int DEPTH_BUCKETS = 64;
+
+    private final int scoreBucketWidth;
+    private final long[] scoreHistogram = new long[SCORE_BUCKETS];    // last bucket holds everything above
+    private final long[] depthHistogram = new long[DEPTH_BUCKETS];    // cascade depth per turn
+    private final long[] boosters = new long[Boosters.COLOR_BOMB + 1];
+    private long games;
+    private long turns;
+    private long deadBoards;
+    private long shuffles;
+    private long shuffledGames;
+    private long scoreSum;
+    private double scoreSquares;
+    private int minScore = Integer.MAX_VALUE;
+    private int maxScore;
+    private int maxDepth;
+
+    public SimulationStats(int scoreBucketWidth) {
+        this.scoreBucketWidth = scoreBucketWidth;
+    }
+
+    public void recordTurn(int cascadeDepth) {
+        turns++;
+        depthHistogram[Math.min(cascadeDepth, DEPTH_BUCKETS - 1)]++;
+        maxDepth = Math.max(maxDepth, cascadeDepth);
+    }
+
+    // 'dead' means the game ended early because no productive swap was left, which only happens when the
+    // shuffler could not fix a board; 'shuffles' counts every dead board the engine met in the game
+    public void recordGame(int score, boolean dead, int shuffles, int rows, int columns, int colorBombs) {
+        games++;
+        if (dead) deadBoards++;
+        this.shuffles += shuffles;
+        if (shuffles > 0) shuffledGames++;
+        scoreSum += score;
+        scoreSquares += (double) score * score;
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        scoreHistogram[Math.min(score / scoreBucketWidth, SCORE_BUCKETS - 1)]++;
+        boosters[Boosters.ROW] += rows;
+        boosters[Boosters.COLUMN] += columns;
+        boosters[Boosters.COLOR_BOMB] += colorBombs;
+    }
+
+    public void merge(SimulationStats other) {
+        for (int i = 0; i < SCORE_BUCKETS; i++) scoreHistogram[i] += other.scoreHistogram[i];
+        for (int i = 0; i < DEPTH_BUCKETS; i++) depthHistogram[i] += other.depthHistogram[i];
+        for (int i = 0; i < boosters.length; i++) boosters[i] += other.boosters[i];
+        games += other.games;
+        turns += other.turns;
+        deadBoards += other.deadBoards;
+        shuffles += other.shuffles;
+        shuffledGames += other.shuffledGames;
+        scoreSum += other.scoreSum;
+        scoreSquares += other.scoreSquares;
+        minScore = Math.min(minScore, other.minScore);
+        maxScore = Math.max(maxScore, other.maxScore);
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+    }
+
+    public long getGames() { return games; }
+    public long getTurns() { return turns; }
+    public long getDeadBoards() { return deadBoards; }
+    public long getShuffles() { return shuffles; }
+    public long getShuffledGames() { return shuffledGames; }
+
+    public double getMeanScore() {
+        return games == 0 ? 0 : (double) scoreSum / games;
+    }
+
+    public double getScoreStdDev() {
+        if (games == 0) return 0;
+        double mean = getMeanScore();
+        return Math.sqrt(Math.max(0, scoreSquares / games - mean * mean));
+    }
+
+    // Lower bound of the histogram bucket holding the given fraction of games
+    public int getScorePercentile(double fraction) {
+        long rank = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int i = 0; i < SCORE_BUCKETS; i++) {
+            seen += scoreHistogram[i];
+            if (seen >= rank && seen > 0) return i * scoreBucketWidth;
+        }
+        return maxScore;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("games            %d (%d turns, %.1f per game)%n", games, turns, games == 0 ? 0.0 : (double) turns / games);
+        out.printf("dead boards      %d reshuffled (%.3f%% of turns, in %.3f%% of games), %d games ended dead (%.3f%%)%n",
+                shuffles, turns == 0 ? 0.0 : 100.0 * shuffles / turns, games == 0 ? 0.0 : 100.0 * shuffledGames / games,
+                deadBoards, games == 0 ? 0.0 : 100.0 * deadBoards / games);
+        out.printf("score            mean %.1f, stddev %.1f, min %d, max %d%n",
+                getMeanScore(), getScoreStdDev(), games == 0 ? 0 : minScore, maxScore);
+        out.printf("score percentile p10 %d, p50 %d, p90 %d, p99 %d (bucket width %d)%n",
+                getScorePercentile(0.10), getScorePercentile(0.50), getScorePercentile(0.90),
+                getScorePercentile(0.99), scoreBucketWidth);
+        out.printf("boosters / game  row %.3f, column %.3f, color bomb %.3f%n",
+                perGame(boosters[Boosters.ROW]), perGame(boosters[Boosters.COLUMN]), perGame(boosters[Boosters.COLOR_BOMB]));
+        out.printf("cascade depth    max %d; turns by depth:", maxDepth);
+        for (int depth = 0; depth <= Math.min(maxDepth, DEPTH_BUCKETS - 1); depth++) {
+            out.printf(" %d:%.2f%%", depth, turns == 0 ? 0.0 : 100.0 * depthHistogram[depth] / turns);
+        }
+        out.println();
+    }
+
+    private double perGame(long count) {
+        return games == 0 ? 0 : (double) count / games;
+    }
+}
@@ -0,0 +1,126 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Plays seeded games without a display and writes every position with its productive swaps, the swap
+// the policy chose, the points it made and the cascade depth, as TrainingShard records. Each thread
+// plays a fixed range of games into its own shard file, so the data does not depend on scheduling,
+// and game i is the same game SimulationRunner plays with the same seed.
+// Usage: TrainingExporter [games=10000] [out=training] [policy=random|greedy|search] [width=8] [height=8]
+//                         [colors=6] [moves=30] [minMoves=0] [seed=1] [threads=<cores>]
+//                         [rollouts=200] [depth=6] [budgetMs=0]   (search only)
+public class TrainingExporter {
+
+    private final Supplier<Policy> policy;
+    private final int width;
+    private final int height;
+    private final int colors;
+    private final int moves;
+    private final int minMoves;
+    private final long seed;
+
+    public TrainingExporter(Supplier<Policy> policy, int width, int height, int colors, int moves, int minMoves,
+                            long seed) {
+        this.policy = policy;
+        this.width = width;
+        this.height = height;
+        this.colors = colors;
+        this.moves = moves;
+        this.minMoves = minMoves;
+        this.seed = seed;
+    }
+
+    // Writes shard-<n>.ggtd files into the directory, one per thread; returns the records written
+    public long export(long games, int threads, Path dir) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> new Thread(r, "gemgrid-export"));
+        try {
+            List<Future<Integer>> shards = new ArrayList<>();
+            for (int shard = 0; shard < threads; shard++) {
+                long from = games * shard / threads;
+                long to = games * (shard + 1) / threads;
+                Path file = dir.resolve(String.format("shard-%03d.ggtd", shard));
+                shards.add(pool.submit(() -> exportGames(from, to, file)));
+            }
+            long records = 0;
+            for (Future<Integer> shard : shards) {
+                records += shard.get();
+            }
+            return records;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Export failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Plays games [from, to) on one thread with one reused board, engine and policy
+    private int exportGames(long from, long to, Path file) throws IOException {
+        Board board = new Board(width, height, colors);
+        GameEngine engine = new GameEngine(board, new GameRandom(0));
+        engine.setMinMoves(minMoves);
+        Policy player = policy.get();
+        GameRandom seeds = new GameRandom(0);
+
+        try (TrainingShard.Writer writer = new TrainingShard.Writer(file, width, height, colors, seed)) {
+            for (long game = from; game < to; game++) {
+                long gameSeed = SimulationRunner.gameSeed(seeds, seed, game);
+                engine.newGame(gameSeed);
+                player.reset(gameSeed ^ SimulationRunner.POLICY_SALT);
+
+                for (int move = 0; move < moves; move++) {
+                    writer.writePosition(game, move, board, engine.findMoves());
+                    int before = engine.getScore();
+                    if (!player.playMove(engine)) break;
+                    writer.writeOutcome(engine.getLastFirst(), engine.getLastSecond(), engine.getScore(),
+                            engine.getScore() - before, engine.getCascadeDepth());
+                }
+            }
+            return writer.getCount();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = SimulationRunner.parseOptions(args);
+        long games = Long.parseLong(options.getOrDefault("games", "10000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Path dir = Paths.get(options.getOrDefault("out", "training"));
+        int width = Integer.parseInt(options.getOrDefault("width", "8"));
+        int height = Integer.parseInt(options.getOrDefault("height", "8"));
+
+        TrainingExporter exporter = new TrainingExporter(
+                SimulationRunner.policies(options),
+                width,
+                height,
+                Integer.parseInt(options.getOrDefault("colors", "6")),
+                Integer.parseInt(options.getOrDefault("moves", "30")),
+                Integer.parseInt(options.getOrDefault("minMoves", "0")),
+                Long.parseLong(options.getOrDefault("seed", "1")));
+
+        long start = System.nanoTime();
+        long records = exporter.export(games, threads, dir);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double megabytes = records * (double) TrainingShard.recordBytes(width, height) / (1 << 20);
+        System.out.printf("%d positions in %d shards under %s, %.0f MB%n", records, threads, dir, megabytes);
+        System.out.printf("%d threads, %.2f s, %.0f positions/s%n", threads, seconds, records / seconds);
+    }
+}
@@ -0,0 +1,277 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.MoveGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// One file of training positions: a 32-byte header, then fixed-width little-endian records, so record
+// i starts at HEADER_BYTES + i * recordBytes and other tools can map the file as a plain array.
+// A record holds the position before a move and what the move did:
+//   0  long  game index         16 int first cell         32 long[words] right pairs (MoveGenerator)
+//   8  int   move in the game   20 int second cell           long[words] down pairs
+//   12 int   score after move   24 int points of the move     byte[cells] cells, color | booster << 4
+//                               28 int cascade depth          padded to 8 bytes
+// Files are written by a Writer through one reused direct buffer, and read back by mapping them;
+// neither allocates per record
+public final class TrainingShard {
+
+    private static final int MAGIC = 0x47475444;  // "GGTD"
+    private static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    private static final int GAME = 0;
+    private static final int MOVE = 8;
+    private static final int SCORE = 12;
+    private static final int FIRST = 16;
+    private static final int SECOND = 20;
+    private static final int POINTS = 24;
+    private static final int CASCADE = 28;
+    private static final int PAIRS = 32;
+
+    private final MappedByteBuffer[] windows;
+    private final int windowRecords;
+    private final int width;
+    private final int height;
+    private final int colorCount;
+    private final int recordBytes;
+    private final int recordCount;
+    private final long seed;
+    private final int words;
+
+    private TrainingShard(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.size() < HEADER_BYTES || channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a training data file");
+        }
+        int version = header.get(4) & 0xFF;
+        if (version != VERSION) throw new IOException("Unsupported training data version: " + version);
+
+        this.colorCount = header.get(5) & 0xFF;
+        this.width = header.getShort(6) & 0xFFFF;
+        this.height = header.getShort(8) & 0xFFFF;
+        this.recordBytes = header.getInt(12);
+        long count = header.getLong(16);
+        this.seed = header.getLong(24);
+        this.words = (width * height + 63) >>> 6;
+        if (width == 0 || height == 0 || colorCount > Board.MAX_COLORS || recordBytes != recordBytes(width, height)
+                || count < 0 || count > Integer.MAX_VALUE
+                || channel.size() < HEADER_BYTES + count * recordBytes) {
+            throw new IOException("Corrupt training data file");
+        }
+        this.recordCount = (int) count;
+
+        // A mapped buffer holds at most 2 GB, so large files are mapped as several windows of whole records
+        this.windowRecords = Integer.MAX_VALUE / recordBytes;
+        this.windows = new MappedByteBuffer[(recordCount + windowRecords - 1) / windowRecords];
+        for (int w = 0; w < windows.length; w++) {
+            int records = Math.min(windowRecords, recordCount - w * windowRecords);
+            windows[w] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_BYTES + (long) w * windowRecords * recordBytes, (long) records * recordBytes);
+            windows[w].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    // Maps a shard for reading; the mapping outlives the file channel
+    public static TrainingShard open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new TrainingShard(channel);
+        }
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getColorCount() { return colorCount; }
+    public int getRecordCount() { return recordCount; }
+    public int getRecordBytes() { return recordBytes; }
+
+    // Base seed of the export; game i was played from SimulationRunner.gameSeed(seed, i)
+    public long getSeed() { return seed; }
+
+    public long getGame(int record) { return window(record).getLong(offset(record) + GAME); }
+    public int getMove(int record) { return window(record).getInt(offset(record) + MOVE); }
+    public int getScore(int record) { return window(record).getInt(offset(record) + SCORE); }
+    public int getFirst(int record) { return window(record).getInt(offset(record) + FIRST); }
+    public int getSecond(int record) { return window(record).getInt(offset(record) + SECOND); }
+    public int getPoints(int record) { return window(record).getInt(offset(record) + POINTS); }
+    public int getCascadeDepth(int record) { return window(record).getInt(offset(record) + CASCADE); }
+
+    // Word of the productive swaps to the right of / below each cell, as in MoveGenerator
+    public long getRightPairs(int record, int word) {
+        return window(record).getLong(offset(record) + PAIRS + word * 8);
+    }
+
+    public long getDownPairs(int record, int word) {
+        return window(record).getLong(offset(record) + PAIRS + (words + word) * 8);
+    }
+
+    public byte getColor(int record, int cell) {
+        byte symbol = window(record).get(offset(record) + cells() + cell);
+        return (byte) (symbol & 0x0F);
+    }
+
+    public byte getBooster(int record, int cell) {
+        byte symbol = window(record).get(offset(record) + cells() + cell);
+        return (byte) (symbol >>> 4);
+    }
+
+    // Read-only view of the whole record, e.g. to hand it to a model without copying
+    public ByteBuffer getRecord(int record) {
+        int offset = offset(record);
+        return window(record).slice(offset, recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Puts the record's position on the board
+    public void restore(int record, Board board) {
+        if (board.getWidth() != width || board.getHeight() != height || board.getColorCount() != colorCount) {
+            throw new IllegalArgumentException("Board size mismatch");
+        }
+        for (int cell = 0; cell < width * height; cell++) {
+            board.set(cell, getColor(record, cell), getBooster(record, cell));
+        }
+    }
+
+    private MappedByteBuffer window(int record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + recordCount);
+        }
+        return windows[record / windowRecords];
+    }
+
+    private int offset(int record) {
+        return record % windowRecords * recordBytes;
+    }
+
+    private int cells() {
+        return PAIRS + words * 16;
+    }
+
+    static int recordBytes(int width, int height) {
+        int cells = width * height;
+        return (PAIRS + ((cells + 63) >>> 6) * 16 + cells + 7) & ~7;
+    }
+
+    // Appends records to a new shard file. Records are built in place in a direct buffer of BLOCK_BYTES,
+    // which is written out whole when it fills and on close, so the file only ever holds complete
+    // records and is never mapped for writing: a mapped file cannot be truncated or replaced on
+    // Windows while the mapping lives, and Java has no way to release a mapping on demand.
+    // Each record is written in two steps: writePosition() before the move and writeOutcome() after
+    // it; a position without an outcome is dropped
+    public static final class Writer implements Closeable {
+
+        private static final int BLOCK_BYTES = 8 << 20;
+
+        private final FileChannel channel;
+        private final int width;
+        private final int height;
+        private final int colorCount;
+        private final long seed;
+        private final int recordBytes;
+        private final int blockRecords;
+        private final int words;
+        private final ByteBuffer block;
+        private int blockStart;
+        private int count;
+        private int offset = -1;
+
+        public Writer(Path file, int width, int height, int colorCount, long seed) throws IOException {
+            this.width = width;
+            this.height = height;
+            this.colorCount = colorCount;
+            this.seed = seed;
+            this.recordBytes = recordBytes(width, height);
+            this.blockRecords = Math.max(1, BLOCK_BYTES / recordBytes);
+            this.words = (width * height + 63) >>> 6;
+            this.block = ByteBuffer.allocateDirect(blockRecords * recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writeHeader();
+        }
+
+        public int getCount() { return count; }
+
+        // Starts the next record with the position and its productive swaps
+        public void writePosition(long game, int move, Board board, MoveGenerator moves) throws IOException {
+            if (board.getWidth() != width || board.getHeight() != height) {
+                throw new IllegalArgumentException("Board size mismatch");
+            }
+            if (count - blockStart == blockRecords) flush();
+            offset = (count - blockStart) * recordBytes;
+            block.putLong(offset + GAME, game);
+            block.putInt(offset + MOVE, move);
+            putPairs(offset + PAIRS, moves.getRightPairs());
+            putPairs(offset + PAIRS + words * 8, moves.getDownPairs());
+            int cells = offset + PAIRS + words * 16;
+            for (int cell = 0; cell < board.getSize(); cell++) {
+                block.put(cells + cell, (byte) (board.getColor(cell) | board.getBooster(cell) << 4));
+            }
+        }
+
+        // Completes the record started by writePosition()
+        public void writeOutcome(int first, int second, int score, int points, int cascadeDepth) {
+            if (offset < 0) throw new IllegalStateException("No position written");
+            block.putInt(offset + SCORE, score);
+            block.putInt(offset + FIRST, first);
+            block.putInt(offset + SECOND, second);
+            block.putInt(offset + POINTS, points);
+            block.putInt(offset + CASCADE, cascadeDepth);
+            offset = -1;
+            count++;
+        }
+
+        // Writes the last records and the record count
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                writeHeader();
+            } finally {
+                channel.close();
+            }
+        }
+
+        // Appends the completed records in the block to the file and starts an empty block
+        private void flush() throws IOException {
+            block.limit((count - blockStart) * recordBytes);
+            long position = HEADER_BYTES + (long) blockStart * recordBytes;
+            while (block.hasRemaining()) {
+                channel.write(block, position + block.position());
+            }
+            block.clear();
+            blockStart = count;
+        }
+
+        private void putPairs(int at, CellMask pairs) {
+            for (int word = 0; word < words; word++) {
+                block.putLong(at + word * 8, pairs.getWord(word));
+            }
+        }
+
+        private void writeHeader() throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.put((byte) VERSION);
+            header.put((byte) colorCount);
+            header.putShort((short) width);
+            header.putShort((short) height);
+            header.putShort((short) 0);
+            header.putInt(recordBytes);
+            header.putLong(count);
+            header.putLong(seed);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+}
@@ -1,26 +1,75 @@
 package com.springliviu.gemgrid.services;
 
 import com.springliviu.gemgrid.Tile;
-import com.springliviu.gemgrid.BoosterType;
-import javafx.animation.FadeTransition;
-import javafx.util.Duration;
-
-// Utility class for animating tile behavior
-public class GridAnimator {
-
-    // Fades out a tile before clearing it
-    public static void fadeOutTile(Tile tile, Runnable onFinished) {
-        FadeTransition fade = new FadeTransition(Duration.millis(200), tile);
-        fade.setFromValue(1.0);
-        fade.setToValue(0.0);
-
-        fade.setOnFinished(e -> {
-            tile.setOpacity(1.0); // Reset opacity for future use
-            tile.setTileColor(null);
-            tile.setBooster(BoosterType.NONE);
-            onFinished.run();
-        });
-
-        fade.play();
+import com.springliviu.gemgrid.TileBoardView;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.Boosters;
+import com.springliviu.gemgrid.engine.CellMask;
+import com.springliviu.gemgrid.engine.TurnScript;
+
+// Animates the pooled tiles of a TileBoardView through one TweenScheduler. Tween keys are board cells;
+// values for cells scrolled out of view are dropped
+public class GridAnimator implements TweenScheduler.Target {
+
+    private final TileBoardView view;
+    private final TweenScheduler scheduler;
+    private final CellMask fading;
+    private final Runnable clearFaded = this::clearFaded;
+    private Runnable afterFade;
+
+    public GridAnimator(TileBoardView view, Board board) {
+        this.view = view;
+        this.scheduler = new TweenScheduler(this);
+        this.fading = new CellMask(board.getSize());
+    }
+
+    public TweenScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // Fades out every visible tile of a FADE step as one phase; onFinished runs once, after the last fade
+    public void fadeOutCells(TurnScript script, int step, Runnable onFinished) {
+        fading.clear();
+        afterFade = onFinished;
+        scheduler.beginPhase(clearFaded);
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            int cell = script.getCell(i);
+            fading.add(cell);
+            if (view.tileAt(cell) != null) {
+                scheduler.add(cell, TweenScheduler.OPACITY, 1.0, 0.0, TweenScheduler.FADE_NANOS);
+            }
+        }
+        scheduler.endPhase();
+    }
+
+    // Faded tiles show empty until the next DROP step fills them again
+    private void clearFaded() {
+        for (int cell = fading.nextCell(0); cell >= 0; cell = fading.nextCell(cell + 1)) {
+            view.show(cell, Board.EMPTY, Boosters.NONE);
+            Tile tile = view.tileAt(cell);
+            if (tile != null) tile.setOpacity(1.0);
+        }
+        Runnable done = afterFade;
+        afterFade = null;
+        done.run();
+    }
+
+    @Override
+    public void apply(int cell, int property, double value) {
+        Tile tile = view.tileAt(cell);
+        if (tile == null) return;
+        switch (property) {
+            case TweenScheduler.OPACITY:
+                tile.setOpacity(value);
+                break;
+            case TweenScheduler.TRANSLATE_X:
+                tile.setTranslateX(value);
+                break;
+            case TweenScheduler.TRANSLATE_Y:
+                tile.setTranslateY(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tween property: " + property);
+        }
     }
 }
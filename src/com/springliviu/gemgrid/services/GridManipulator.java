@@ -1,82 +1,49 @@
 package com.springliviu.gemgrid.services;
 
-import com.springliviu.gemgrid.BoosterType;
-import com.springliviu.gemgrid.Tile;
-import javafx.animation.TranslateTransition;
-import javafx.application.Platform;
-import javafx.scene.paint.Color;
-import javafx.util.Duration;
+import com.springliviu.gemgrid.TileBoardView;
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.DropList;
+import com.springliviu.gemgrid.engine.TurnScript;
 
-import java.util.Random;
-
-// Handles gravity and tile movements on the grid
+// Animates the tile movements of a TurnScript step, from gravity or a reshuffle. Each call is one
+// scheduler phase, so 'after' runs once every tile has landed. Cells out of view only change content
 public class GridManipulator {
 
-    private static final int TILE_SIZE = 50;
-    private static final int TILE_GAP = 5;
-
-    public static void applyGravity(Tile[][] grid, Random random, Runnable after) {
-        int gridSize = grid.length;
-
-        for (int col = 0; col < gridSize; col++) {
-            int emptyRow = gridSize - 1;
-
-            for (int row = gridSize - 1; row >= 0; row--) {
-                if (grid[row][col].getTileColor() != null) {
-                    if (emptyRow != row) {
-                        swapWithDropAnimation(grid, row, col, emptyRow, col);
-                    }
-                    emptyRow--;
-                }
-            }
-
-            for (int row = emptyRow; row >= 0; row--) {
-                Color newColor = randomColor(random);
-                grid[row][col].setTileColor(newColor);
-                grid[row][col].setBooster(BoosterType.NONE);
-                animateDrop(grid[row][col], -1, row);
+    // Shows the tiles of a DROP step and animates them falling
+    public static void animateDrops(TileBoardView view, Board board, TurnScript script, int step, TweenScheduler scheduler, Runnable after) {
+        scheduler.beginPhase(after);
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            int target = script.getCell(i);
+            int fromRow = script.getAux(i);
+            view.show(target, script.getColor(i), script.getBooster(i));
+            if (view.tileAt(target) == null) continue;
+
+            double deltaY = (board.rowOf(target) - fromRow) * view.getSlot();
+            scheduler.add(target, TweenScheduler.TRANSLATE_Y, -deltaY, 0, TweenScheduler.DROP_NANOS);
+            if (fromRow == DropList.SPAWNED) {
+                scheduler.add(target, TweenScheduler.OPACITY, 0, 1, TweenScheduler.DROP_NANOS);
             }
         }
-
-        Platform.runLater(after);
-    }
-
-    private static void swapWithDropAnimation(Tile[][] grid, int fromRow, int col, int toRow, int toCol) {
-        Color color = grid[fromRow][col].getTileColor();
-        BoosterType booster = grid[fromRow][col].getBooster();
-
-        grid[toRow][toCol].setTileColor(color);
-        grid[toRow][toCol].setBooster(booster);
-
-        grid[fromRow][col].setTileColor(null);
-        grid[fromRow][col].setBooster(BoosterType.NONE);
-
-        animateDrop(grid[toRow][toCol], fromRow, toRow);
+        scheduler.endPhase();
     }
 
-    private static void animateDrop(Tile tile, int oldRow, int newRow) {
-        double deltaY = (newRow - oldRow) * (TILE_SIZE + TILE_GAP);
-        TranslateTransition tt = new TranslateTransition(Duration.millis(150), tile);
-        tt.setFromY(-deltaY);
-        tt.setToY(0);
-        tt.play();
-
-        // Optional: fade in effect for new tiles
-        if (oldRow == -1) {
-            tile.setOpacity(0);
-            tile.setVisible(true);
-            javafx.animation.FadeTransition fade = new javafx.animation.FadeTransition(Duration.millis(150), tile);
-            fade.setFromValue(0);
-            fade.setToValue(1);
-            fade.play();
+    // Flies every tile of a SHUFFLE step from its old cell to its new one; tiles with fresh colors fade in
+    public static void animateShuffle(TileBoardView view, Board board, TurnScript script, int step, TweenScheduler scheduler, Runnable after) {
+        scheduler.beginPhase(after);
+        for (int i = script.getStart(step); i < script.getEnd(step); i++) {
+            int cell = script.getCell(i);
+            int source = script.getAux(i);
+            view.show(cell, script.getColor(i), script.getBooster(i));
+            if (view.tileAt(cell) == null) continue;
+            if (source < 0) {
+                scheduler.add(cell, TweenScheduler.OPACITY, 0, 1, TweenScheduler.SHUFFLE_NANOS);
+                continue;
+            }
+            scheduler.add(cell, TweenScheduler.TRANSLATE_X,
+                    (board.colOf(source) - board.colOf(cell)) * view.getSlot(), 0, TweenScheduler.SHUFFLE_NANOS);
+            scheduler.add(cell, TweenScheduler.TRANSLATE_Y,
+                    (board.rowOf(source) - board.rowOf(cell)) * view.getSlot(), 0, TweenScheduler.SHUFFLE_NANOS);
         }
-    }
-
-    private static Color randomColor(Random random) {
-        Color[] colors = {
-                Color.RED, Color.GREEN, Color.BLUE,
-                Color.YELLOW, Color.ORANGE, Color.PURPLE
-        };
-        return colors[random.nextInt(colors.length)];
+        scheduler.endPhase();
     }
 }
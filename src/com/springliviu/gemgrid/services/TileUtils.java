@@ -2,8 +2,11 @@ package com.springliviu.gemgrid.services;
 
 import com.springliviu.gemgrid.BoosterType;
 import com.springliviu.gemgrid.Tile;
+import com.springliviu.gemgrid.events.TileScanEvent;
 import javafx.scene.paint.Color;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -12,6 +15,8 @@ import java.util.Set;
 // Utility class for tile match detection and booster classification
 public class TileUtils {
 
+    private static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
     // Checks if a single tile is part of a horizontal or vertical match of 3 or more
     public static boolean isMatch(Tile[][] grid, int row, int col) {
         Tile tile = grid[row][col];
@@ -31,6 +36,8 @@ public class TileUtils {
 
     // Finds all matched tiles in the grid (horizontal and vertical matches of 3 or more)
     public static Set<Tile> findMatchedTiles(Tile[][] grid) {
+        TileScanEvent event = new TileScanEvent();
+        event.begin();
         Set<Tile> matched = new HashSet<>();
 
         // Horizontal matches
@@ -75,11 +82,14 @@ public class TileUtils {
             }
         }
 
+        commit(event, "findMatchedTiles", grid, matched.size());
         return matched;
     }
 
     // Classifies matched tiles and determines which ones should
     public static Map<Tile, BoosterType> classifyMatchesAndBoosters(Tile[][] grid, Set<Tile> matched) {
+        TileScanEvent event = new TileScanEvent();
+        event.begin();
         Map<Tile, BoosterType> result = new HashMap<>();
         Set<Tile> visited = new HashSet<>();
 
@@ -161,30 +171,45 @@ public class TileUtils {
 
             if (boosterType != BoosterType.NONE && boosterTarget != null && !result.containsKey(boosterTarget)) {
                 result.put(boosterTarget, boosterType);
-                System.out.println("Assigned " + boosterType + " at " + boosterTarget.getRow() + "," + boosterTarget.getCol());
             }
         }
 
+        commit(event, "classifyMatchesAndBoosters", grid, matched.size());
         return result;
     }
 
+    private static void commit(TileScanEvent event, String operation, Tile[][] grid, int tiles) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.operation = operation;
+        event.width = grid[0].length;
+        event.height = grid.length;
+        event.tiles = tiles;
+        event.commit();
+    }
+
+    // Groups adjacent matched tiles of the same color, using an explicit stack instead of recursion
+    private static void dfsCluster(Tile[][] grid, Tile start, Set<Tile> matched, Set<Tile> cluster, Color color) {
+        Deque<Tile> stack = new ArrayDeque<>();
+        stack.push(start);
 
-    // Performs DFS to group adjacent matched tiles of the same color
-    private static void dfsCluster(Tile[][] grid, Tile tile, Set<Tile> matched, Set<Tile> cluster, Color color) {
-        if (tile == null || cluster.contains(tile) || tile.getTileColor() == null) return;
-        if (!matched.contains(tile)) return;
-        if (!tile.getTileColor().equals(color)) return;
+        while (!stack.isEmpty()) {
+            Tile tile = stack.pop();
+            if (cluster.contains(tile) || tile.getTileColor() == null) continue;
+            if (!matched.contains(tile)) continue;
+            if (!tile.getTileColor().equals(color)) continue;
 
-        cluster.add(tile);
+            cluster.add(tile);
 
-        int row = tile.getRow();
-        int col = tile.getCol();
+            int row = tile.getRow();
+            int col = tile.getCol();
 
-        for (int[] d : new int[][]{{-1, 0}, {1, 0}, {0, -1}, {0, 1}}) {
-            int newRow = row + d[0];
-            int newCol = col + d[1];
-            if (inBounds(grid, newRow, newCol)) {
-                dfsCluster(grid, grid[newRow][newCol], matched, cluster, color);
+            for (int[] d : DIRECTIONS) {
+                int newRow = row + d[0];
+                int newCol = col + d[1];
+                if (inBounds(grid, newRow, newCol)) {
+                    stack.push(grid[newRow][newCol]);
+                }
             }
         }
     }
@@ -0,0 +1,192 @@
+package com.springliviu.gemgrid.services;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.Arrays;
+
+// Runs every tile animation from one AnimationTimer. Tweens are plain records in parallel arrays,
+// reused once finished, so starting one allocates nothing. Tweens are grouped into phases, and each
+// phase runs a single callback when its last tween is done. The timer only runs while there is
+// something to animate: it stops after a pulse that leaves no tween, phase or frame request behind,
+// and starts again with the next phase or requestFrame()
+public final class TweenScheduler {
+
+    public static final int OPACITY = 0;
+    public static final int TRANSLATE_X = 1;
+    public static final int TRANSLATE_Y = 2;
+
+    // Durations shared by both board views, before setTimeScale() applies the animation speed
+    public static final long FADE_NANOS = 200_000_000L;
+    public static final long DROP_NANOS = 150_000_000L;
+    public static final long SHUFFLE_NANOS = 400_000_000L;
+
+    // Half a color bomb pulse, 1.0 to 1.1 scale; the pulse keeps its pace at every speed
+    public static final long PULSE_NANOS = 600_000_000L;
+
+    // Receives tween values; 'key' is whatever the view passed in, e.g. a board cell
+    public interface Target {
+        void apply(int key, int property, double value);
+
+        // Called once per pulse after all tweens have been applied
+        default void frameDone(long now) {
+        }
+
+        // True while the target animates without tweens, e.g. a pulsing color bomb; keeps the timer
+        // running when no tween is left
+        default boolean needsFrames() {
+            return false;
+        }
+    }
+
+    private final Target target;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse(now);
+        }
+    };
+    private boolean running;
+    private boolean frameRequested;
+
+    private int count;
+    private int[] keys = new int[64];
+    private int[] properties = new int[64];
+    private int[] phases = new int[64];
+    private double[] from = new double[64];
+    private double[] to = new double[64];
+    private long[] start = new long[64];
+    private long[] duration = new long[64];
+
+    private int[] phaseRemaining = new int[8];
+    private Runnable[] phaseCallbacks = new Runnable[8];
+    private long[] phaseBegun = new long[8];
+    private int openPhase = -1;
+    private double timeScale = 1.0;
+
+    public TweenScheduler(Target target) {
+        this.target = target;
+    }
+
+    // Starts collecting tweens into a new phase; onFinished runs once all of them are done
+    public void beginPhase(Runnable onFinished) {
+        if (openPhase >= 0) throw new IllegalStateException("Phase already open");
+        int phase = 0;
+        while (phase < phaseCallbacks.length && phaseCallbacks[phase] != null) phase++;
+        if (phase == phaseCallbacks.length) {
+            phaseRemaining = Arrays.copyOf(phaseRemaining, phase * 2);
+            phaseCallbacks = Arrays.copyOf(phaseCallbacks, phase * 2);
+            phaseBegun = Arrays.copyOf(phaseBegun, phase * 2);
+        }
+        phaseCallbacks[phase] = onFinished;
+        phaseBegun[phase] = System.nanoTime();
+        phaseRemaining[phase] = 0;
+        openPhase = phase;
+        wake();
+    }
+
+    // A phase without tweens finishes on the next pulse
+    public void endPhase() {
+        openPhase = -1;
+    }
+
+    // Animates one property from 'fromValue' to 'toValue'; the first value is applied right away
+    public void add(int key, int property, double fromValue, double toValue, long nanos) {
+        if (openPhase < 0) throw new IllegalStateException("No open phase");
+        if (count == keys.length) grow();
+        keys[count] = key;
+        properties[count] = property;
+        phases[count] = openPhase;
+        from[count] = fromValue;
+        to[count] = toValue;
+        start[count] = System.nanoTime();
+        duration[count] = Math.max(1, (long) (nanos * timeScale));
+        count++;
+        phaseRemaining[openPhase]++;
+        target.apply(key, property, fromValue);
+    }
+
+    // Multiplies the duration of every tween added from now on, e.g. 0.25 for a fast mode
+    public void setTimeScale(double timeScale) {
+        if (timeScale <= 0) throw new IllegalArgumentException("Time scale must be positive: " + timeScale);
+        this.timeScale = timeScale;
+    }
+
+    public int getActiveTweens() {
+        return count;
+    }
+
+    // Runs at least one more pulse, e.g. after the target changed what it shows outside a tween
+    public void requestFrame() {
+        frameRequested = true;
+        wake();
+    }
+
+    private void wake() {
+        if (running) return;
+        running = true;
+        timer.start();
+    }
+
+    private void pulse(long now) {
+        frameRequested = false;
+        for (int i = 0; i < count; i++) {
+            double t = Math.max(0, (double) (now - start[i]) / duration[i]);
+            if (t < 1) {
+                // Same ease-in/ease-out feel as the default Transition interpolator
+                double eased = t * t * (3 - 2 * t);
+                target.apply(keys[i], properties[i], from[i] + (to[i] - from[i]) * eased);
+                continue;
+            }
+
+            target.apply(keys[i], properties[i], to[i]);
+            phaseRemaining[phases[i]]--;
+            count--;
+            moveTween(count, i);
+            i--;
+        }
+
+        target.frameDone(now);
+
+        for (int phase = 0; phase < phaseCallbacks.length; phase++) {
+            Runnable callback = phaseCallbacks[phase];
+            // Phases begun by a callback in this loop wait for the next pulse
+            if (callback != null && phase != openPhase && phaseRemaining[phase] == 0 && phaseBegun[phase] <= now) {
+                phaseCallbacks[phase] = null;
+                callback.run();
+            }
+        }
+
+        if (count == 0 && !frameRequested && !hasPhases() && !target.needsFrames()) {
+            timer.stop();
+            running = false;
+        }
+    }
+
+    private boolean hasPhases() {
+        for (Runnable callback : phaseCallbacks) {
+            if (callback != null) return true;
+        }
+        return false;
+    }
+
+    private void moveTween(int src, int dst) {
+        keys[dst] = keys[src];
+        properties[dst] = properties[src];
+        phases[dst] = phases[src];
+        from[dst] = from[src];
+        to[dst] = to[src];
+        start[dst] = start[src];
+        duration[dst] = duration[src];
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        keys = Arrays.copyOf(keys, capacity);
+        properties = Arrays.copyOf(properties, capacity);
+        phases = Arrays.copyOf(phases, capacity);
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        start = Arrays.copyOf(start, capacity);
+        duration = Arrays.copyOf(duration, capacity);
+    }
+}
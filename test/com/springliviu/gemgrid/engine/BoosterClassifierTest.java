@@ -0,0 +1,206 @@
+package com.springliviu.gemgrid.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// BoosterClassifier must spawn the boosters TileUtils.classifyMatchesAndBoosters did; the original
+// whole-grid streak scan is ported below onto the byte board. Where a T/L cluster falls back to "any
+// tile from the cluster" the original took the first one out of a HashSet, so the port takes the
+// cluster's first cell in scan order, which is what the classifier documents
+class BoosterClassifierTest {
+
+    private static final int[][] SIZES = {{3, 3}, {5, 5}, {8, 8}, {9, 7}, {1, 10}, {10, 1}, {16, 12}, {70, 6}};
+    private static final int BOARDS = 500;
+
+    @Test
+    void randomBoardsMatchOriginalRules() {
+        GameRandom random = new GameRandom(11);
+        for (int[] size : SIZES) {
+            Board board = new Board(size[0], size[1], 6);
+            BoosterClassifier classifier = new BoosterClassifier(board);
+            CellMask matched = new CellMask(board.getSize());
+            BoosterSpawns spawns = new BoosterSpawns(board.getSize());
+
+            for (int i = 0; i < BOARDS; i++) {
+                // Two or three colors give long lines, crossings and large clusters
+                int colors = 2 + i % 3;
+                for (int cell = 0; cell < board.getSize(); cell++) {
+                    board.set(cell, (byte) (1 + random.nextInt(colors)), Boosters.NONE);
+                }
+                MatchFinder.findMatches(board, matched);
+                assertSameSpawns(board, classifier, matched, spawns, size[0] + "x" + size[1] + " board " + i);
+            }
+        }
+    }
+
+    @Test
+    void shapesMatchOriginalRules() {
+        // Row of 4, column of 4, row of 5, column of 6, T, L, cross, and a row of 4 next to a column of 5
+        String[][] boards = {
+                {"1111"},
+                {"1", "1", "1", "1"},
+                {"22222"},
+                {"3", "3", "3", "3", "3", "3"},
+                {"111", ".1.", ".1."},
+                {"1..", "1..", "111"},
+                {".1.", "111", ".1."},
+                {"1111.", "....2", "....2", "....2", "....2", "....2"},
+        };
+        for (String[] rows : boards) {
+            Board board = parse(rows);
+            CellMask matched = new CellMask(board.getSize());
+            MatchFinder.findMatches(board, matched);
+            assertSameSpawns(board, new BoosterClassifier(board), matched, new BoosterSpawns(board.getSize()),
+                    String.join("/", rows));
+        }
+    }
+
+    @Test
+    void classifierIsReusable() {
+        Board board = parse(new String[]{"11112", "2..2.", "2..2.", ".33.."});
+        BoosterClassifier classifier = new BoosterClassifier(board);
+        CellMask matched = new CellMask(board.getSize());
+        BoosterSpawns spawns = new BoosterSpawns(board.getSize());
+        MatchFinder.findMatches(board, matched);
+        for (int i = 0; i < 3; i++) {
+            assertSameSpawns(board, classifier, matched, spawns, "call " + i);
+        }
+    }
+
+    private static void assertSameSpawns(Board board, BoosterClassifier classifier, CellMask matched,
+                                         BoosterSpawns spawns, String message) {
+        classifier.classify(matched, spawns);
+        Map<Integer, Byte> actual = new TreeMap<>();
+        for (int i = 0; i < spawns.size(); i++) {
+            actual.put(spawns.getCell(i), spawns.getType(i));
+        }
+        assertEquals(originalBoosters(board, matched), actual, message);
+    }
+
+    // Rows of color digits; '.' cells get colors that cannot match
+    private static Board parse(String[] rows) {
+        Board board = new Board(rows[0].length(), rows.length, 9);
+        byte filler = 4;
+        for (int row = 0; row < rows.length; row++) {
+            for (int col = 0; col < rows[row].length(); col++) {
+                char c = rows[row].charAt(col);
+                byte color = c == '.' ? filler++ : (byte) (c - '0');
+                if (filler > 9) filler = 4;
+                board.set(board.index(row, col), color, Boosters.NONE);
+            }
+        }
+        return board;
+    }
+
+    // TileUtils.classifyMatchesAndBoosters
+    private static Map<Integer, Byte> originalBoosters(Board board, CellMask matched) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        Map<Integer, Byte> result = new TreeMap<>();
+        boolean[] visited = new boolean[board.getSize()];
+
+        for (int start = matched.nextCell(0); start >= 0; start = matched.nextCell(start + 1)) {
+            if (visited[start]) continue;
+
+            boolean[] cluster = new boolean[board.getSize()];
+            List<Integer> cells = cluster(board, start, matched, cluster);
+            for (int cell : cells) visited[cell] = true;
+            if (cells.size() < 3) continue;
+
+            int target = -1;
+            byte type = Boosters.NONE;
+
+            for (int row = 0; row < height; row++) {
+                int streak = 0;
+                for (int col = 0; col < width; col++) {
+                    if (cluster[board.index(row, col)]) {
+                        streak++;
+                    } else {
+                        if (streak == 4) {
+                            target = board.index(row, col - 2);
+                            type = Boosters.ROW;
+                        } else if (streak >= 5) {
+                            target = board.index(row, col - streak / 2);
+                            type = Boosters.COLOR_BOMB;
+                        }
+                        streak = 0;
+                    }
+                }
+                if (streak == 4) {
+                    target = board.index(row, width - 2);
+                    type = Boosters.ROW;
+                } else if (streak >= 5) {
+                    target = board.index(row, width - streak / 2);
+                    type = Boosters.COLOR_BOMB;
+                }
+            }
+
+            for (int col = 0; col < width; col++) {
+                int streak = 0;
+                for (int row = 0; row < height; row++) {
+                    if (cluster[board.index(row, col)]) {
+                        streak++;
+                    } else {
+                        if (streak == 4 && type == Boosters.NONE) {
+                            target = board.index(row - 2, col);
+                            type = Boosters.COLUMN;
+                        } else if (streak >= 5 && type != Boosters.COLOR_BOMB) {
+                            target = board.index(row - streak / 2, col);
+                            type = Boosters.COLOR_BOMB;
+                        }
+                        streak = 0;
+                    }
+                }
+                if (streak == 4 && type == Boosters.NONE) {
+                    target = board.index(height - 2, col);
+                    type = Boosters.COLUMN;
+                } else if (streak >= 5 && type != Boosters.COLOR_BOMB) {
+                    target = board.index(height - streak / 2, col);
+                    type = Boosters.COLOR_BOMB;
+                }
+            }
+
+            if (type == Boosters.NONE && cells.size() >= 5) {
+                type = Boosters.COLOR_BOMB;
+                target = cells.stream().min(Integer::compare).get();
+            }
+
+            if (type != Boosters.NONE && !result.containsKey(target)) {
+                result.put(target, type);
+            }
+        }
+        return result;
+    }
+
+    // Same-colored matched cells connected to 'start'
+    private static List<Integer> cluster(Board board, int start, CellMask matched, boolean[] cluster) {
+        int width = board.getWidth();
+        byte color = board.getColor(start);
+        List<Integer> cells = new ArrayList<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(start);
+
+        while (!stack.isEmpty()) {
+            int cell = stack.pop();
+            if (cluster[cell] || !matched.contains(cell) || board.getColor(cell) != color) continue;
+            cluster[cell] = true;
+            cells.add(cell);
+
+            int row = board.rowOf(cell);
+            int col = board.colOf(cell);
+            if (row > 0) stack.push(cell - width);
+            if (row < board.getHeight() - 1) stack.push(cell + width);
+            if (col > 0) stack.push(cell - 1);
+            if (col < width - 1) stack.push(cell + 1);
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,116 @@
+package com.springliviu.gemgrid.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Every MatchDetector must report exactly the cells of TileUtils.findMatchedTiles; the original scan is
+// ported below onto the byte board, with EMPTY standing in for a tile without a color
+class MatchDetectorTest {
+
+    private static final int[][] SIZES = {{3, 3}, {8, 8}, {9, 7}, {1, 12}, {12, 1}, {63, 5}, {64, 4}, {65, 3}, {130, 9}};
+    private static final int BOARDS = 300;
+
+    @Test
+    void scanMatchesOriginalRules() {
+        assertSameMatches("scan");
+    }
+
+    @Test
+    void bitboardMatchesOriginalRules() {
+        assertSameMatches("bitboard");
+    }
+
+    @Test
+    void vectorMatchesOriginalRules() {
+        assumeTrue(MatchDetector.isVectorAvailable(), "needs --add-modules jdk.incubator.vector");
+        assertSameMatches("vector");
+    }
+
+    @Test
+    void vectorFallsBackWithoutModule() {
+        Board board = new Board(8, 8, 6);
+        MatchDetector detector = MatchDetector.create("vector", board);
+        String expected = MatchDetector.isVectorAvailable() ? "VectorMatcher" : "BitboardMatcher";
+        assertEquals(expected, detector.getClass().getSimpleName());
+    }
+
+    private static void assertSameMatches(String name) {
+        GameRandom random = new GameRandom(7);
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            Board board = new Board(width, height, 6);
+            MatchDetector detector = MatchDetector.create(name, board);
+            CellMask found = new CellMask(board.getSize());
+
+            for (int i = 0; i < BOARDS; i++) {
+                // Few colors give long runs and crossings; markers and empty cells must not confuse edges
+                fill(board, random, 2 + i % 5);
+                boolean[] expected = originalMatches(board);
+                boolean any = detector.findMatches(board, found);
+
+                boolean[] actual = new boolean[board.getSize()];
+                boolean expectedAny = false;
+                for (int cell = 0; cell < board.getSize(); cell++) {
+                    actual[cell] = found.contains(cell);
+                    expectedAny |= expected[cell];
+                }
+                String message = name + " on " + width + "x" + height + " board " + i;
+                assertArrayEquals(expected, actual, message);
+                assertEquals(expectedAny, any, message);
+            }
+        }
+    }
+
+    private static void fill(Board board, GameRandom random, int colors) {
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            int roll = random.nextInt(20);
+            byte color;
+            if (roll == 0) color = Board.EMPTY;
+            else if (roll == 1) color = Board.MARKER;
+            else color = (byte) (1 + random.nextInt(colors));
+            board.set(cell, color, Boosters.NONE);
+        }
+    }
+
+    // TileUtils.findMatchedTiles
+    private static boolean[] originalMatches(Board board) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        boolean[] matched = new boolean[board.getSize()];
+
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width - 2; col++) {
+                byte color = board.getColor(board.index(row, col));
+                if (color != Board.EMPTY &&
+                        board.getColor(board.index(row, col + 1)) == color &&
+                        board.getColor(board.index(row, col + 2)) == color) {
+                    int k = col;
+                    while (k < width && board.getColor(board.index(row, k)) == color) {
+                        matched[board.index(row, k)] = true;
+                        k++;
+                    }
+                }
+            }
+        }
+
+        for (int col = 0; col < width; col++) {
+            for (int row = 0; row < height - 2; row++) {
+                byte color = board.getColor(board.index(row, col));
+                if (color != Board.EMPTY &&
+                        board.getColor(board.index(row + 1, col)) == color &&
+                        board.getColor(board.index(row + 2, col)) == color) {
+                    int k = row;
+                    while (k < height && board.getColor(board.index(k, col)) == color) {
+                        matched[board.index(k, col)] = true;
+                        k++;
+                    }
+                }
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,88 @@
+package com.springliviu.gemgrid.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// MoveGenerator must report exactly the swaps that the exhaustive rule finds: swap the two cells and
+// look for a run of 3 through either of them, and count every swap that touches a booster
+class MoveGeneratorTest {
+
+    private static final int[][] SIZES = {{3, 3}, {8, 8}, {9, 7}, {1, 12}, {12, 1}, {63, 5}, {64, 4}, {65, 3}, {130, 9}};
+    private static final int BOARDS = 200;
+
+    @Test
+    void settledBoardsMatchBruteForce() {
+        GameRandom random = new GameRandom(5);
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            Board board = new Board(width, height, 6);
+            GameEngine engine = new GameEngine(board, new GameRandom(0));
+            MoveGenerator generator = new MoveGenerator(width, height);
+
+            for (int i = 0; i < BOARDS; i++) {
+                // Few colors leave many near-runs; settling also spawns some boosters
+                int colors = 3 + i % 4;
+                for (int cell = 0; cell < board.getSize(); cell++) {
+                    board.set(cell, (byte) (1 + random.nextInt(colors)), Boosters.NONE);
+                }
+                engine.getRandom().setState(random.nextLong());
+                engine.settle();
+                if (i % 3 == 0) addBoosters(board, random);
+                assertSameMoves(board, generator, width + "x" + height + " board " + i);
+            }
+        }
+    }
+
+    @Test
+    void boardWithoutMovesHasNone() {
+        // Three colors on a diagonal stripe pattern never line up, whatever is swapped
+        Board board = new Board(6, 6, 3);
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            board.set(cell, (byte) (1 + (board.rowOf(cell) + board.colOf(cell)) % 3), Boosters.NONE);
+        }
+        MoveGenerator generator = new MoveGenerator(6, 6);
+        assertSameMoves(board, generator, "stripes");
+        assertEquals(0, generator.getMoveCount());
+    }
+
+    // Booster tiles on cells where the marker color does not complete a run, so the board stays settled
+    private static void addBoosters(Board board, GameRandom random) {
+        for (int n = 0; n < 3; n++) {
+            int cell = random.nextInt(board.getSize());
+            byte color = board.getColor(cell);
+            byte booster = board.getBooster(cell);
+            board.set(cell, Board.MARKER, (byte) (1 + random.nextInt(Boosters.COLOR_BOMB)));
+            if (MatchFinder.isMatch(board, board.rowOf(cell), board.colOf(cell))) {
+                board.set(cell, color, booster);
+            }
+        }
+    }
+
+    private static void assertSameMoves(Board board, MoveGenerator generator, String message) {
+        int width = board.getWidth();
+        int count = generator.generate(board);
+        int expectedCount = 0;
+        for (int cell = 0; cell < board.getSize(); cell++) {
+            boolean right = board.colOf(cell) < width - 1 && productive(board, cell, cell + 1);
+            boolean down = cell + width < board.getSize() && productive(board, cell, cell + width);
+            assertEquals(right, generator.getRightPairs().contains(cell), message + ", right of " + cell);
+            assertEquals(down, generator.getDownPairs().contains(cell), message + ", below " + cell);
+            if (right) expectedCount++;
+            if (down) expectedCount++;
+        }
+        assertEquals(expectedCount, count, message);
+        assertEquals(expectedCount, generator.getMoveCount(), message);
+    }
+
+    // Plays the swap on the board and undoes it
+    private static boolean productive(Board board, int a, int b) {
+        if (board.getBooster(a) != Boosters.NONE || board.getBooster(b) != Boosters.NONE) return true;
+        board.swap(a, b);
+        boolean match = MatchFinder.isMatch(board, board.rowOf(a), board.colOf(a))
+                || MatchFinder.isMatch(board, board.rowOf(b), board.colOf(b));
+        board.swap(a, b);
+        return match;
+    }
+}
@@ -0,0 +1,131 @@
+package com.springliviu.gemgrid.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// A game written by SaveGame and read back must continue exactly where it stopped: same cells and
+// boosters, score, random state and move count, and the same turns from then on
+class SaveGameTest {
+
+    // Width, height, colors; palettes of 4, 5 and 14 colors need 3, 4 and 5 bits per cell
+    private static final int[][] SIZES = {{8, 8, 6}, {13, 9, 7}, {3, 5, 4}, {40, 3, 14}, {7, 7, 5}};
+    private static final int MOVES = 20;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoredGameContinuesTheSame() throws IOException {
+        for (int[] size : SIZES) {
+            String message = size[0] + "x" + size[1] + " with " + size[2] + " colors";
+            GameEngine engine = new GameEngine(new Board(size[0], size[1], size[2]), new GameRandom(0));
+            engine.newGame(size[0] * 31L + size[1]);
+            int moveCount = playFirstMoves(engine, MOVES);
+            addBoosters(engine.getBoard());
+
+            Path file = dir.resolve(size[0] + "x" + size[1] + ".sav");
+            SaveGame.write(SaveGame.encode(engine, 99, moveCount), file);
+            SaveGame saved = SaveGame.read(file);
+            assertEquals(size[0], saved.getWidth(), message);
+            assertEquals(size[1], saved.getHeight(), message);
+            assertEquals(size[2], saved.getColorCount(), message);
+            assertEquals(99, saved.getSeed(), message);
+            assertEquals(engine.getScore(), saved.getScore(), message);
+            assertEquals(moveCount, saved.getMoveCount(), message);
+
+            GameEngine loaded = new GameEngine(new Board(size[0], size[1], size[2]), new GameRandom(1));
+            loaded.newGame(7);
+            saved.restore(loaded);
+            assertSameGame(engine, loaded, message);
+
+            playFirstMoves(engine, MOVES);
+            playFirstMoves(loaded, MOVES);
+            assertSameGame(engine, loaded, message + " after more moves");
+        }
+    }
+
+    @Test
+    void corruptFilesAreRejected() throws IOException {
+        GameEngine engine = new GameEngine(new Board(13, 9, 6), new GameRandom(0));
+        engine.newGame(3);
+        ByteBuffer encoded = SaveGame.encode(engine, 3, 0);
+
+        ByteBuffer magic = copy(encoded);
+        magic.put(0, (byte) (magic.get(0) ^ 1));
+        assertRejected(magic, "Not a saved game");
+
+        ByteBuffer version = copy(encoded);
+        version.put(4, (byte) 2);
+        assertRejected(version, "Unsupported saved game version: 2");
+
+        // Bits per cell no longer fit the palette
+        ByteBuffer bits = copy(encoded);
+        bits.put(10, (byte) 8);
+        assertRejected(bits, "Corrupt saved game");
+
+        ByteBuffer truncated = copy(encoded);
+        truncated.limit(truncated.limit() - 8);
+        assertRejected(truncated, "Corrupt saved game");
+
+        // 6 colors and 3 booster types leave symbols 10..15 unused; the first cell is in the low bits of
+        // the first big-endian word, so in its last byte
+        ByteBuffer cell = copy(encoded);
+        int first = encoded.limit() - (13 * 9 * 4 + 63) / 64 * 8 + 7;
+        cell.put(first, (byte) (cell.get(first) | 0x0F));
+        assertRejected(cell, "Corrupt saved cell: 0");
+    }
+
+    private void assertRejected(ByteBuffer encoded, String expected) throws IOException {
+        Path file = dir.resolve("corrupt.sav");
+        SaveGame.write(encoded, file);
+        IOException e = assertThrows(IOException.class, () -> SaveGame.read(file));
+        assertEquals(expected, e.getMessage());
+    }
+
+    private static ByteBuffer copy(ByteBuffer encoded) {
+        ByteBuffer copy = ByteBuffer.allocate(encoded.remaining());
+        copy.put(encoded.duplicate());
+        return copy.flip();
+    }
+
+    // Plays the first productive swap each turn; returns the number of turns played
+    private static int playFirstMoves(GameEngine engine, int turns) {
+        for (int turn = 0; turn < turns; turn++) {
+            MoveGenerator moves = engine.findMoves();
+            int right = moves.getRightPairs().nextCell(0);
+            int down = moves.getDownPairs().nextCell(0);
+            if (right >= 0) {
+                engine.play(right, right + 1);
+            } else {
+                engine.play(down, down + engine.getBoard().getWidth());
+            }
+        }
+        return turns;
+    }
+
+    // One booster of each type, so every symbol range is saved at least once; the cells are apart, so
+    // the marker color cannot make a run
+    private static void addBoosters(Board board) {
+        board.set(0, Board.MARKER, Boosters.ROW);
+        board.set(board.getSize() / 2, Board.MARKER, Boosters.COLUMN);
+        board.set(board.getSize() - 1, Board.MARKER, Boosters.COLOR_BOMB);
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual, String message) {
+        Board a = expected.getBoard();
+        Board b = actual.getBoard();
+        for (int cell = 0; cell < a.getSize(); cell++) {
+            assertEquals(a.getColor(cell), b.getColor(cell), message + ", color of " + cell);
+            assertEquals(a.getBooster(cell), b.getBooster(cell), message + ", booster of " + cell);
+        }
+        assertEquals(expected.getScore(), actual.getScore(), message);
+        assertEquals(expected.getRandom().getState(), actual.getRandom().getState(), message);
+    }
+}
@@ -0,0 +1,160 @@
+package com.springliviu.gemgrid.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranspositionTableTest {
+
+    private static final long ABSENT = -1;
+
+    // Hashes with a zero low half and a multiple of 16 in the high half all land in the first pair of a
+    // 16-entry table, so they compete for the same two slots
+    private static long colliding(int k) {
+        return (long) (k * 16) << 32;
+    }
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(2, new TranspositionTable(1).getCapacity());
+        assertEquals(8, new TranspositionTable(5).getCapacity());
+        assertEquals(16, new TranspositionTable(16).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(16).put(1, 256, 0));
+    }
+
+    @Test
+    void storesAndFindsValues() {
+        TranspositionTable table = new TranspositionTable(16);
+        long hash = 0x9E3779B97F4A7C15L;
+        table.put(hash, 3, 42);
+        assertEquals(42, table.get(hash, ABSENT));
+        assertEquals(42, table.get(hash, 3, ABSENT));
+        assertEquals(ABSENT, table.get(hash, 4, ABSENT));
+        assertEquals(ABSENT, table.get(hash + 1, ABSENT));
+
+        // Zero hash and zero value must still read as stored, not as an unused slot
+        table.put(0, 0, 0);
+        assertEquals(0, table.get(0, ABSENT));
+    }
+
+    @Test
+    void sameKeyIsOverwritten() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.put(colliding(1), 10, 1);
+        table.put(colliding(1), 1, 7);
+        assertEquals(7, table.get(colliding(1), ABSENT));
+    }
+
+    @Test
+    void deepEntrySurvivesShallowerWrites() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.put(colliding(1), 10, 1);
+        table.put(colliding(2), 2, 2);
+        table.put(colliding(3), 3, 3);
+
+        // The shallow entries take turns in the second slot
+        assertEquals(1, table.get(colliding(1), ABSENT));
+        assertEquals(ABSENT, table.get(colliding(2), ABSENT));
+        assertEquals(3, table.get(colliding(3), ABSENT));
+    }
+
+    @Test
+    void deeperOrEqualEntryTakesFirstSlot() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.put(colliding(1), 4, 1);
+        table.put(colliding(2), 1, 2);
+        table.put(colliding(3), 4, 3);
+
+        assertEquals(ABSENT, table.get(colliding(1), ABSENT));
+        assertEquals(2, table.get(colliding(2), ABSENT));
+        assertEquals(3, table.get(colliding(3), ABSENT));
+    }
+
+    @Test
+    void olderGenerationIsReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(16);
+        table.put(colliding(1), 10, 1);
+        table.nextGeneration();
+        assertEquals(1, table.get(colliding(1), ABSENT));
+
+        table.put(colliding(2), 1, 2);
+        assertEquals(ABSENT, table.get(colliding(1), ABSENT));
+        assertEquals(2, table.get(colliding(2), ABSENT));
+
+        // A deep entry of the new generation is then protected again
+        table.put(colliding(3), 0, 3);
+        assertEquals(2, table.get(colliding(2), ABSENT));
+        assertEquals(3, table.get(colliding(3), ABSENT));
+    }
+
+    @Test
+    void clearDropsEverything() {
+        TranspositionTable table = new TranspositionTable(16);
+        for (int k = 1; k <= 8; k++) {
+            table.put(k * 0x9E3779B97F4A7C15L, k, k);
+        }
+        table.clear();
+        for (int k = 1; k <= 8; k++) {
+            assertEquals(ABSENT, table.get(k * 0x9E3779B97F4A7C15L, ABSENT));
+        }
+    }
+
+    @Test
+    void concurrentReadersNeverSeeWrongValues() throws InterruptedException {
+        int threads = 4;
+        int operations = 200_000;
+        int keys = 4096;
+        TranspositionTable table = new TranspositionTable(1 << 10);
+        AtomicLong wrong = new AtomicLong();
+        AtomicLong hits = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long seed = t + 1;
+            workers[t] = new Thread(() -> {
+                GameRandom random = new GameRandom(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < operations; i++) {
+                    long hash = hashOf(random.nextInt(keys));
+                    if (random.nextBoolean()) {
+                        table.put(hash, random.nextInt(16), valueOf(hash));
+                    } else {
+                        long value = table.get(hash, ABSENT);
+                        if (value == ABSENT) continue;
+                        hits.incrementAndGet();
+                        if (value != valueOf(hash)) wrong.incrementAndGet();
+                    }
+                    if (i % 50_000 == 0) table.nextGeneration();
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, wrong.get(), "values read for the wrong hash");
+        assertTrue(hits.get() > 0, "no hits at all");
+    }
+
+    private static long hashOf(int key) {
+        return (key + 1) * 0x9E3779B97F4A7C15L;
+    }
+
+    // Every writer stores the same value for a hash, so any other value read back is torn or misplaced
+    private static long valueOf(long hash) {
+        return Long.rotateLeft(hash, 17) & Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,105 @@
+package com.springliviu.gemgrid.headless;
+
+import com.springliviu.gemgrid.engine.Board;
+import com.springliviu.gemgrid.engine.GameEngine;
+import com.springliviu.gemgrid.engine.GameRandom;
+import com.springliviu.gemgrid.engine.MoveGenerator;
+import com.springliviu.gemgrid.engine.MoveLog;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A recorded game must replay to the recorded score and board, through a write and read of its log,
+// and a log with any move changed must not
+class ReplayRunnerTest {
+
+    private static final int[][] SIZES = {{8, 8, 6}, {13, 9, 7}, {5, 11, 4}};
+    private static final int MOVES = 60;
+    private static final int TAMPERED = MOVES / 2;
+
+    @Test
+    void recordedGamesVerify() throws IOException {
+        for (int[] size : SIZES) {
+            String message = size[0] + "x" + size[1] + " with " + size[2] + " colors";
+            MoveLog log = record(size[0], size[1], size[2], size[0] * 31L + size[1]);
+            MoveLog read = reread(log);
+
+            assertEquals(log.getSeed(), read.getSeed(), message);
+            assertEquals(log.getMoveCount(), read.getMoveCount(), message);
+            for (int i = 0; i < log.getMoveCount(); i++) {
+                assertEquals(log.getFirstCell(i), read.getFirstCell(i), message + ", move " + i);
+                assertEquals(log.getSecondCell(i), read.getSecondCell(i), message + ", move " + i);
+            }
+            assertEquals(log.getFinalScore(), read.getFinalScore(), message);
+            assertEquals(log.getFinalHash(), read.getFinalHash(), message);
+            assertTrue(ReplayRunner.verify(read), message);
+        }
+    }
+
+    @Test
+    void tamperedMoveIsAMismatch() throws IOException {
+        for (int[] size : SIZES) {
+            String message = size[0] + "x" + size[1] + " with " + size[2] + " colors";
+            MoveLog log = record(size[0], size[1], size[2], size[0] * 31L + size[1]);
+            MoveLog tampered = reread(tamper(log));
+            assertTrue(ReplayRunner.verify(log), message);
+            assertFalse(ReplayRunner.verify(tampered), message);
+        }
+    }
+
+    // Plays a seeded greedy game and records it the way the game does, one accepted swap at a time
+    private static MoveLog record(int width, int height, int colors, long seed) {
+        GameEngine engine = new GameEngine(new Board(width, height, colors), new GameRandom(seed));
+        engine.newGame(seed);
+        Policy player = new GreedyPolicy();
+        player.reset(seed ^ SimulationRunner.POLICY_SALT);
+
+        MoveLog log = new MoveLog(width, height, colors, seed);
+        for (int move = 0; move < MOVES && player.playMove(engine); move++) {
+            log.add(engine.getLastFirst(), engine.getLastSecond());
+        }
+        assertEquals(MOVES, log.getMoveCount(), "greedy game ran out of moves");
+        log.finish(engine.getScore(), engine.getBoard().contentHash());
+        return log;
+    }
+
+    // Same game and recorded outcome, with move TAMPERED swapped for another productive swap
+    private static MoveLog tamper(MoveLog log) {
+        GameEngine engine = new GameEngine(new Board(log.getWidth(), log.getHeight(), log.getColorCount()),
+                new GameRandom(log.getSeed()));
+        engine.newGame(log.getSeed());
+        for (int i = 0; i < TAMPERED; i++) {
+            engine.play(log.getFirstCell(i), log.getSecondCell(i));
+        }
+
+        int first = log.getFirstCell(TAMPERED);
+        int second = log.getSecondCell(TAMPERED);
+        MoveGenerator moves = engine.findMoves();
+        int other = moves.getRightPairs().nextCell(0);
+        if (other == Math.min(first, second) && Math.abs(first - second) == 1) {
+            other = moves.getRightPairs().nextCell(other + 1);
+        }
+        assertNotEquals(-1, other, "no other move to play");
+
+        MoveLog tampered = new MoveLog(log.getWidth(), log.getHeight(), log.getColorCount(), log.getSeed());
+        for (int i = 0; i < log.getMoveCount(); i++) {
+            if (i == TAMPERED) tampered.add(other, other + 1);
+            else tampered.add(log.getFirstCell(i), log.getSecondCell(i));
+        }
+        tampered.finish(log.getFinalScore(), log.getFinalHash());
+        return tampered;
+    }
+
+    private static MoveLog reread(MoveLog log) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+        return MoveLog.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+}